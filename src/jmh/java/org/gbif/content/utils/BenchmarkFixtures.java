@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.utils;
+
+import org.gbif.content.model.EventDoc;
+import org.gbif.content.model.NewsDoc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import co.elastic.clients.elasticsearch.core.search.Hit;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Documents used by the benchmarks, read from the JSON fixtures in src/jmh/resources/fixtures.
+ * <ul>
+ *   <li>small: a short body in one locale</li>
+ *   <li>large: a long Markdown body with headings, lists and links in one locale</li>
+ *   <li>multi-locale: a medium body in ten locales</li>
+ * </ul>
+ */
+final class BenchmarkFixtures {
+
+  static final String LOCALE = "en-GB";
+
+  private static final ObjectMapper MAPPER =
+      new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+  /**
+   * Documents of a fixture file.
+   */
+  record Fixture(NewsDoc news, EventDoc event) {
+
+    /**
+     * News hit without revision, its fields are rendered on every conversion.
+     */
+    Hit<NewsDoc> newsHit() {
+      NewsDoc doc = new NewsDoc(news.id(), news.title(), news.body(), news.createdAt(), null);
+      return Hit.of(h -> h.index("news").id(news.id()).source(doc));
+    }
+
+    /**
+     * News hit with revision, its rendered fields are cached.
+     */
+    Hit<NewsDoc> revisedNewsHit() {
+      return Hit.of(h -> h.index("news").id(news.id()).seqNo(1L).primaryTerm(1L).source(news));
+    }
+
+    /**
+     * Event hit without revision, its fields are rendered on every conversion.
+     */
+    Hit<EventDoc> eventHit() {
+      EventDoc doc =
+          new EventDoc(
+              event.id(),
+              event.title(),
+              event.body(),
+              event.createdAt(),
+              null,
+              event.start(),
+              event.end(),
+              event.coordinates(),
+              event.primaryLink());
+      return Hit.of(h -> h.index("event").id(event.id()).source(doc));
+    }
+
+    /**
+     * Event hit with revision, its rendered fields are cached.
+     */
+    Hit<EventDoc> revisedEventHit() {
+      return Hit.of(h -> h.index("event").id(event.id()).seqNo(1L).primaryTerm(1L).source(event));
+    }
+  }
+
+  private BenchmarkFixtures() {
+    // NOP
+  }
+
+  static Fixture load(String name) {
+    String resource = "/fixtures/" + name + ".json";
+    try (InputStream in = BenchmarkFixtures.class.getResourceAsStream(resource)) {
+      return MAPPER.readValue(in, Fixture.class);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.utils;
+
+import org.gbif.content.model.EventDoc;
+import org.gbif.content.model.NewsDoc;
+
+import java.util.concurrent.TimeUnit;
+
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.syndication.feed.synd.SyndEntry;
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+
+import biweekly.component.VEvent;
+
+/**
+ * Conversion of single documents into feed entries and iCal events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionBenchmark {
+
+  private static final String LINK = "https://www.gbif.org/";
+
+  private static final Parser MARKDOWN_PARSER = Parser.builder().build();
+
+  private static final HtmlRenderer HTML_RENDERER = HtmlRenderer.builder().build();
+
+  @Param({"small", "large", "multi-locale"})
+  public String fixture;
+
+  private Hit<NewsDoc> news;
+
+  private Hit<NewsDoc> revisedNews;
+
+  private Hit<EventDoc> event;
+
+  private Hit<EventDoc> revisedEvent;
+
+  private String eventBody;
+
+  private Document eventBodyHtml;
+
+  @Setup
+  public void setUp() {
+    BenchmarkFixtures.Fixture documents = BenchmarkFixtures.load(fixture);
+    news = documents.newsHit();
+    revisedNews = documents.revisedNewsHit();
+    event = documents.eventHit();
+    revisedEvent = documents.revisedEventHit();
+    eventBody = documents.event().body(BenchmarkFixtures.LOCALE).orElseThrow();
+    eventBodyHtml = Jsoup.parse(HTML_RENDERER.render(MARKDOWN_PARSER.parse(eventBody)));
+  }
+
+  @Benchmark
+  public SyndEntry toFeedEntry() {
+    return ConversionUtil.toFeedEntry(news, BenchmarkFixtures.LOCALE, LINK);
+  }
+
+  @Benchmark
+  public SyndEntry toFeedEntryCachedRevision() {
+    return ConversionUtil.toFeedEntry(revisedNews, BenchmarkFixtures.LOCALE, LINK);
+  }
+
+  @Benchmark
+  public VEvent toVEvent() {
+    return ConversionUtil.toVEvent(event, BenchmarkFixtures.LOCALE, LINK);
+  }
+
+  @Benchmark
+  public VEvent toVEventCachedRevision() {
+    return ConversionUtil.toVEvent(revisedEvent, BenchmarkFixtures.LOCALE, LINK);
+  }
+
+  @Benchmark
+  public String htmlToPlainText() {
+    return new HtmlToPlainText().getPlainText(eventBodyHtml);
+  }
+
+  /**
+   * Markdown to iCal text walking the Markdown AST.
+   */
+  @Benchmark
+  public String iCalText() {
+    return ConversionUtil.toICalText(eventBody);
+  }
+
+  /**
+   * Markdown to iCal text through HTML, Jsoup and HtmlToPlainText.
+   */
+  @Benchmark
+  public String iCalTextFromHtml() {
+    return ConversionUtil.sanitizeIcalText(
+        new HtmlToPlainText()
+            .getPlainText(Jsoup.parse(HTML_RENDERER.render(MARKDOWN_PARSER.parse(eventBody)))));
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.utils;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of the date shapes stored in the indices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateParsingBenchmark {
+
+  @Param({
+    "2026-09-07T10:15:30.123Z",
+    "2026-10-20T09:00:00+03:00",
+    "2026-09-07T10:15+0000",
+    "2026-10-24"
+  })
+  public String date;
+
+  /**
+   * Parser used by the service, hand-written for the common shapes.
+   */
+  @Benchmark
+  public Date parseDate() {
+    return ConversionUtil.STRING_TO_DATE.apply(date);
+  }
+
+  /**
+   * DateTimeFormatter with optional sections.
+   */
+  @Benchmark
+  public Date parseDateWithFormatter() {
+    return ConversionUtil.FORMATTER_TO_DATE.apply(date);
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.syndication.feed.synd.SyndEntry;
+import com.sun.syndication.feed.synd.SyndFeed;
+import com.sun.syndication.feed.synd.SyndFeedImpl;
+import com.sun.syndication.io.FeedException;
+import com.sun.syndication.io.SyndFeedOutput;
+
+import biweekly.Biweekly;
+import biweekly.ICalendar;
+
+/**
+ * Serialization of whole feeds of converted documents, the output is discarded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeedSerializationBenchmark {
+
+  private static final String LINK = "https://www.gbif.org/";
+
+  @Param({"small", "large", "multi-locale"})
+  public String fixture;
+
+  @Param({"10", "100"})
+  public int entries;
+
+  private List<SyndEntry> feedEntries;
+
+  private ICalendar iCal;
+
+  private static SyndFeed newFeed() {
+    SyndFeed feed = new SyndFeedImpl();
+    feed.setFeedType("rss_2.0");
+    feed.setTitle("GBIF news feed");
+    feed.setDescription("GBIF News");
+    feed.setLanguage("en");
+    feed.setLink("http://www.gbif.org/newsroom/news/rss");
+    return feed;
+  }
+
+  @Setup
+  public void setUp() {
+    BenchmarkFixtures.Fixture documents = BenchmarkFixtures.load(fixture);
+    feedEntries = new ArrayList<>();
+    iCal = new ICalendar();
+    for (int i = 0; i < entries; i++) {
+      feedEntries.add(
+          ConversionUtil.toFeedEntry(documents.newsHit(), BenchmarkFixtures.LOCALE, LINK));
+      iCal.addEvent(
+          ConversionUtil.toVEvent(documents.eventHit(), BenchmarkFixtures.LOCALE, LINK));
+    }
+  }
+
+  /**
+   * RSS built as a ROME document and serialized.
+   */
+  @Benchmark
+  public void syndFeedOutput() throws IOException, FeedException {
+    SyndFeed feed = newFeed();
+    feed.setEntries(feedEntries);
+    Writer writer = new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8);
+    new SyndFeedOutput().output(feed, writer);
+    writer.flush();
+  }
+
+  /**
+   * RSS streamed entry by entry.
+   */
+  @Benchmark
+  public void rssFeedWriter() throws IOException {
+    try (RssFeedWriter writer = new RssFeedWriter(OutputStream.nullOutputStream(), newFeed())) {
+      for (SyndEntry entry : feedEntries) {
+        writer.write(entry);
+      }
+    }
+  }
+
+  @Benchmark
+  public void biweeklyWrite() throws IOException {
+    Biweekly.write(iCal).go(OutputStream.nullOutputStream());
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.config;
+
+import java.time.Duration;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Settings of a size-bounded in-memory cache.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheProperties {
+
+  /**
+   * Maximum accumulated size of the cached values, in bytes.
+   */
+  private long maxSize;
+
+  /**
+   * Entries are discarded once this time has passed since they were stored.
+   */
+  private Duration expireAfterWrite;
+}
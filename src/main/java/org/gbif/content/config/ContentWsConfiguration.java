@@ -14,42 +14,80 @@
 package org.gbif.content.config;
 
 import org.gbif.content.crawl.conf.ContentCrawlConfiguration;
-import org.gbif.content.crawl.contentful.crawl.VocabularyTerms;
+import org.gbif.content.service.ContentfulRateLimits;
 
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
 import co.elastic.clients.transport.ElasticsearchTransport;
 import co.elastic.clients.transport.rest_client.RestClientTransport;
 import org.apache.http.HttpHost;
 import org.elasticsearch.client.RestClient;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import com.contentful.java.cda.CDAClient;
 import com.contentful.java.cma.CMAClient;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 @Configuration
+@EnableScheduling
 public class ContentWsConfiguration {
 
   // 3 Minutes
   private static final int CONNECTION_TO = 3;
 
+  // Preview calls waiting for a thread, further calls are rejected
+  private static final int PREVIEW_QUEUE_CAPACITY = 100;
+
   @Bean
   public RestClient elasticsearchRestClient(ContentWsProperties properties) {
     return buildRestClient(properties.getElasticsearch());
   }
 
+  /**
+   * Transport shared by the blocking and the asynchronous ElasticSearch clients.
+   */
   @Bean
-  public ElasticsearchClient searchClient(RestClient elasticsearchRestClient) {
-    ElasticsearchTransport transport = new RestClientTransport(elasticsearchRestClient, new JacksonJsonpMapper());
-    return new ElasticsearchClient(transport);
+  public ElasticsearchTransport elasticsearchTransport(RestClient elasticsearchRestClient) {
+    return new RestClientTransport(elasticsearchRestClient, jsonpMapper());
+  }
+
+  @Bean
+  public ElasticsearchClient searchClient(ElasticsearchTransport elasticsearchTransport) {
+    return new ElasticsearchClient(elasticsearchTransport);
+  }
+
+  /**
+   * Non-blocking client, its futures are completed by the I/O threads of the RestClient.
+   */
+  @Bean
+  public ElasticsearchAsyncClient searchAsyncClient(ElasticsearchTransport elasticsearchTransport) {
+    return new ElasticsearchAsyncClient(elasticsearchTransport);
+  }
+
+  /**
+   * Mapper of ElasticSearch requests and documents.
+   * The typed documents only declare the fields used by this service, the rest are skipped.
+   * Requests are serialized as by the default mapper of the client: compact and without nulls.
+   */
+  private static JacksonJsonpMapper jsonpMapper() {
+    return new JacksonJsonpMapper(
+        new ObjectMapper()
+            .disable(SerializationFeature.INDENT_OUTPUT)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
   }
 
   @ConfigurationProperties(prefix = "content")
@@ -82,7 +120,7 @@ public class ContentWsConfiguration {
 
   public static ElasticsearchClient searchClient(ElasticsearchProperties properties) {
     RestClient restClient = buildRestClient(properties);
-    ElasticsearchTransport transport = new RestClientTransport(restClient, new JacksonJsonpMapper());
+    ElasticsearchTransport transport = new RestClientTransport(restClient, jsonpMapper());
     return new ElasticsearchClient(transport);
   }
 
@@ -105,10 +143,33 @@ public class ContentWsConfiguration {
   }
 
   /**
-   * @return a new instance of a Contentful Preview CDAClient.
+   * @return a new instance of a Contentful CDAClient of the published content, its calls adapt the
+   * rate limit.
+   */
+  @Bean
+  public CDAClient cdaClient(
+      ContentCrawlConfiguration.Contentful configuration, ContentfulRateLimits rateLimits) {
+    CDAClient.Builder builder = CDAClient.builder();
+    return builder
+        .setSpace(configuration.getSpaceId())
+        .setToken(configuration.getCdaToken())
+        .setEnvironment(configuration.getEnvironmentId())
+        .setCallFactory(
+            builder
+                .defaultCallFactoryBuilder()
+                .readTimeout(CONNECTION_TO, TimeUnit.MINUTES)
+                .retryOnConnectionFailure(true)
+                .addInterceptor(rateLimits)
+                .build())
+        .build();
+  }
+
+  /**
+   * @return a new instance of a Contentful Preview CDAClient, its calls adapt the rate limit.
    */
   @Bean
-  public CDAClient cadPreviewClient(ContentCrawlConfiguration.Contentful configuration) {
+  public CDAClient cadPreviewClient(
+      ContentCrawlConfiguration.Contentful configuration, ContentfulRateLimits rateLimits) {
     CDAClient.Builder builder = CDAClient.builder();
     return builder
         .setSpace(configuration.getSpaceId())
@@ -120,34 +181,21 @@ public class ContentWsConfiguration {
                 .defaultCallFactoryBuilder()
                 .readTimeout(CONNECTION_TO, TimeUnit.MINUTES)
                 .retryOnConnectionFailure(true)
+                .addInterceptor(rateLimits)
                 .build())
         .build();
   }
 
+  /**
+   * Bounded executor of the blocking Contentful calls made to build previews.
+   */
   @Bean
-  public VocabularyTerms vocabularyTerms(
-      ContentCrawlConfiguration.Contentful configuration,
-      CMAClient cmaClient,
-      @Value("${contentful.preloadVocabularies:true}") boolean preLoad) {
-    VocabularyTerms vocabularyTerms = new VocabularyTerms();
-    if (preLoad) {
-      cmaClient
-          .contentTypes()
-          .fetchAll(configuration.getSpaceId(), configuration.getEnvironmentId())
-          .getItems()
-          .forEach(
-              contentType -> {
-                if (configuration.getVocabularies().contains(contentType.getName())) {
-                  // Keeps the country vocabulary ID for future use
-                  if (contentType.getName().equals(configuration.getCountryVocabulary())) {
-                    vocabularyTerms.loadCountryVocabulary(contentType);
-                  } else {
-                    // Loads vocabulary into memory
-                    vocabularyTerms.loadVocabulary(contentType);
-                  }
-                }
-              });
-    }
-    return vocabularyTerms;
+  public ThreadPoolTaskExecutor previewExecutor(ContentWsProperties properties) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(properties.getPreviewThreads());
+    executor.setMaxPoolSize(properties.getPreviewThreads());
+    executor.setQueueCapacity(PREVIEW_QUEUE_CAPACITY);
+    executor.setThreadNamePrefix("preview-");
+    return executor;
   }
 }
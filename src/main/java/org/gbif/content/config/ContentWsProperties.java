@@ -13,6 +13,8 @@
  */
 package org.gbif.content.config;
 
+import java.time.Duration;
+
 import lombok.Data;
 
 /**
@@ -36,4 +38,66 @@ public class ContentWsProperties {
   private SynchronizationProperties synchronization;
 
   private ElasticsearchProperties elasticsearch;
+
+  /**
+   * Cache of the rendered RSS and iCal feeds.
+   * Feeds are evicted once an entry is indexed or deleted and when a crawl starts, a feed rendered
+   * while a crawl runs can be stale until it expires.
+   */
+  private CacheProperties feedCache = new CacheProperties(32 * 1024 * 1024, Duration.ofMinutes(10));
+
+  /**
+   * Cache of the serialized content documents.
+   */
+  private CacheProperties contentCache =
+      new CacheProperties(64 * 1024 * 1024, Duration.ofMinutes(5));
+
+  /**
+   * Cache of the serialized content previews.
+   */
+  private CacheProperties previewCache =
+      new CacheProperties(16 * 1024 * 1024, Duration.ofMinutes(2));
+
+  /**
+   * Index of each content document, the size is the accumulated length of ids and index names.
+   */
+  private CacheProperties contentLocations =
+      new CacheProperties(4 * 1024 * 1024, Duration.ofDays(1));
+
+  /**
+   * Maximum number of concurrent Contentful calls made to build previews.
+   */
+  private int previewThreads = 8;
+
+  /**
+   * Rate limit and retries of the calls to Contentful.
+   */
+  private ContentfulApiProperties contentfulApi = new ContentfulApiProperties();
+
+  /**
+   * File of the last content types loaded from Contentful, read at startup instead of calling
+   * Contentful. Not used if it is not set.
+   */
+  private String contentTypesSnapshot;
+
+  /**
+   * Feeds with more elements are not cached, they are streamed to the client instead.
+   */
+  private int maxCachedFeedSize = 100;
+
+  /**
+   * Interval between reloads of the programme acronyms.
+   */
+  private Duration programmeCacheRefresh = Duration.ofHours(1);
+
+  /**
+   * Interval between reloads of the content types and vocabularies.
+   */
+  private Duration vocabularyRefresh = Duration.ofHours(6);
+
+  /**
+   * Virtual threads pinned to their carrier for longer are reported, used only when virtual
+   * threads are enabled.
+   */
+  private Duration pinnedThreadThreshold = Duration.ofMillis(20);
 }
@@ -0,0 +1,50 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.config;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+/**
+ * Rate limit and retries of the calls to the Contentful preview API.
+ */
+@Data
+public class ContentfulApiProperties {
+
+  /**
+   * Maximum number of calls per second, Contentful can lower it through its rate limit headers.
+   */
+  private int limitForPeriod = 10;
+
+  /**
+   * Time a call waits for the rate limiter before it is rejected.
+   */
+  private Duration timeout = Duration.ofSeconds(5);
+
+  /**
+   * Maximum number of attempts of a call, including the first one.
+   */
+  private int maxAttempts = 4;
+
+  /**
+   * Wait before the first retry, it grows exponentially in the following ones.
+   */
+  private Duration initialBackoff = Duration.ofMillis(500);
+
+  /**
+   * Maximum wait between retries.
+   */
+  private Duration maxBackoff = Duration.ofSeconds(10);
+}
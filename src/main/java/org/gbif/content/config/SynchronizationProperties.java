@@ -13,6 +13,7 @@
  */
 package org.gbif.content.config;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -55,6 +56,22 @@ public class SynchronizationProperties {
    */
   private String version = "LATEST";
 
+  /**
+   * Published entries are indexed by this service instead of running a full synchronization,
+   * changes of content types and assets still run it.
+   */
+  private boolean indexPublishedEntries;
+
+  /**
+   * A crawl runs once no change has been notified for this time.
+   */
+  private Duration crawlDebounce = Duration.ofSeconds(30);
+
+  /**
+   * Maximum time a crawl waits after the first change notified.
+   */
+  private Duration crawlMaxDelay = Duration.ofMinutes(5);
+
   private Map<String, EnvironmentConfig> environments;
 
   @Data
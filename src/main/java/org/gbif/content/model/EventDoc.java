@@ -0,0 +1,36 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.model;
+
+import java.util.Map;
+
+/**
+ * Document of the events index.
+ *
+ * @param start       start date of the event
+ * @param end         end date of the event
+ * @param coordinates location of the event
+ * @param primaryLink main link of the event
+ */
+public record EventDoc(
+    String id,
+    Map<String, String> title,
+    Map<String, String> body,
+    String createdAt,
+    String updatedAt,
+    String start,
+    String end,
+    GeoPoint coordinates,
+    Link primaryLink)
+    implements FeedDocument {}
@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.model;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * ElasticSearch document rendered as an entry of RSS and iCal feeds.
+ * Localized fields are maps of locale codes to values.
+ */
+public interface FeedDocument {
+
+  String id();
+
+  Map<String, String> title();
+
+  Map<String, String> body();
+
+  String createdAt();
+
+  String updatedAt();
+
+  /**
+   * Title in a locale.
+   */
+  default Optional<String> title(String locale) {
+    return localized(title(), locale);
+  }
+
+  /**
+   * Body in a locale.
+   */
+  default Optional<String> body(String locale) {
+    return localized(body(), locale);
+  }
+
+  /**
+   * Modification date, the creation date if the document has never been updated.
+   */
+  default String lastModified() {
+    return Optional.ofNullable(updatedAt()).orElse(createdAt());
+  }
+
+  static Optional<String> localized(Map<String, String> field, String locale) {
+    return Optional.ofNullable(field).map(value -> value.get(locale));
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+/**
+ * Link element, indexed either as a plain url or as an object whose url is a plain or localized
+ * value.
+ *
+ * @param url          url of the link, null if it is localized
+ * @param localizedUrl url of the link per locale, null if it is not localized
+ */
+public record Link(String url, Map<String, String> localizedUrl) {
+
+  /**
+   * Creates a link from any of its indexed forms, localized urls that are not text are skipped.
+   */
+  @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+  public static Link of(Object value) {
+    if (value instanceof String url) {
+      return new Link(url, null);
+    }
+    if (value instanceof Map<?, ?> link) {
+      Object url = link.get("url");
+      if (url instanceof String plainUrl) {
+        return new Link(plainUrl, null);
+      }
+      if (url instanceof Map<?, ?> localizedUrl) {
+        Map<String, String> urls = new HashMap<>();
+        localizedUrl.forEach(
+            (locale, localized) -> {
+              if (locale instanceof String key && localized instanceof String text) {
+                urls.put(key, text);
+              }
+            });
+        return new Link(null, urls);
+      }
+    }
+    return new Link(null, null);
+  }
+
+  /**
+   * Url of the link in a locale.
+   */
+  public Optional<String> url(String locale) {
+    return url != null ? Optional.of(url) : FeedDocument.localized(localizedUrl, locale);
+  }
+}
@@ -15,147 +15,478 @@ package org.gbif.content.resource;
 
 import org.gbif.content.crawl.conf.ContentCrawlConfiguration;
 import org.gbif.content.crawl.contentful.crawl.EsDocBuilder;
-import org.gbif.content.crawl.contentful.crawl.VocabularyTerms;
-import org.gbif.content.crawl.es.ElasticSearchUtils;
+import org.gbif.content.exception.WebApplicationException;
+import org.gbif.content.service.ContentCache;
+import org.gbif.content.service.ContentLocations;
+import org.gbif.content.service.ContentTypeRegistry;
+import org.gbif.content.service.ContentfulClient;
+import org.gbif.content.service.PreviewCache;
+import org.gbif.content.service.TagFields;
+import org.gbif.content.service.Vocabularies;
+import org.gbif.content.utils.ResourceVersion;
+import org.gbif.content.utils.SingleFlight;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch.core.get.GetResult;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.contentful.java.cda.CDAClient;
 import com.contentful.java.cda.CDAEntry;
 import com.contentful.java.cda.CDAResourceNotFoundException;
-import com.contentful.java.cma.CMAClient;
-import com.contentful.java.cma.model.CMAContentType;
-
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
-import io.github.resilience4j.retry.annotation.Retry;
-import lombok.SneakyThrows;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RequestMapping(value = "content", produces = MediaType.APPLICATION_JSON_VALUE)
 @RestController
 public class ContentResource {
 
-  private static final int LEVELS = 2;
+  private static final Logger LOG = LoggerFactory.getLogger(ContentResource.class);
 
-  private static final String LOCALE_PARAM = "locale";
+  private static final String CONTENT_ALIAS = "content";
 
-  private static final String ALL = "*";
+  private static final String ID_FIELD = "id";
 
-  private static final String CONTENT_ALIAS = "content";
+  /** Maximum number of documents of a batch request */
+  private static final int MAX_BATCH_SIZE = 100;
+
+  private final ElasticsearchAsyncClient esClient;
+
+  private final ContentLocations contentLocations;
+
+  private final ContentCache contentCache;
+
+  private final PreviewCache previewCache;
+
+  private final ObjectMapper objectMapper;
+
+  private final ContentfulClient contentfulClient;
 
-  private final ElasticsearchClient esClient;
+  private final Executor previewExecutor;
 
-  private final CDAClient cdaPreviewClient;
+  /** Executor of the serialization of the documents, off the ElasticSearch I/O threads */
+  private final Executor taskExecutor;
 
-  private final CMAClient cmaClient;
+  private final Vocabularies vocabularies;
 
-  private final VocabularyTerms vocabularyTerms;
+  private final ContentTypeRegistry contentTypeRegistry;
 
-  private final ContentCrawlConfiguration.Contentful configuration;
+  private final TagFields tagFields;
 
-  private String projectContentId;
+  /** Number of indices behind the content alias, one per content type */
+  private final int contentIndices;
 
-  private final Set<String> tagFields;
+  /** Searches in flight by content id, identical concurrent requests share a single search */
+  private final SingleFlight<String, Lookup> searches = new SingleFlight<>();
+
+  /** Document found by id and the generation of the content cache when the lookup started */
+  private record Lookup(Optional<Hit<Map>> esDoc, long generation) {}
 
   @Autowired
   public ContentResource(
-      ElasticsearchClient esClient,
-      CDAClient cdaPreviewClient,
-      VocabularyTerms vocabularyTerms,
-      ContentCrawlConfiguration.Contentful configuration,
-      CMAClient cmaClient) {
+      ElasticsearchAsyncClient esClient,
+      ContentLocations contentLocations,
+      ContentCache contentCache,
+      PreviewCache previewCache,
+      ObjectMapper objectMapper,
+      ContentfulClient contentfulClient,
+      @Qualifier("previewExecutor") Executor previewExecutor,
+      @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+          Executor taskExecutor,
+      Vocabularies vocabularies,
+      ContentTypeRegistry contentTypeRegistry,
+      TagFields tagFields,
+      ContentCrawlConfiguration.Contentful configuration) {
     this.esClient = esClient;
-    this.cdaPreviewClient = cdaPreviewClient;
-    this.vocabularyTerms = vocabularyTerms;
-    this.configuration = configuration;
-    this.cmaClient = cmaClient;
-    this.tagFields =
-        configuration.getContentTypes().stream()
-            .map(contentType -> ElasticSearchUtils.toFieldNameFormat(contentType) + "Tag")
-            .collect(Collectors.toSet());
-  }
-
-  private String getProjectContentId() {
-    if (projectContentId == null) {
-      this.projectContentId = lookUpProjectContentId();
+    this.contentLocations = contentLocations;
+    this.contentCache = contentCache;
+    this.previewCache = previewCache;
+    this.objectMapper = objectMapper;
+    this.contentfulClient = contentfulClient;
+    this.previewExecutor = previewExecutor;
+    this.taskExecutor = taskExecutor;
+    this.vocabularies = vocabularies;
+    this.contentTypeRegistry = contentTypeRegistry;
+    this.tagFields = tagFields;
+    this.contentIndices = Math.max(1, configuration.getContentTypes().size());
+  }
+
+  /**
+   * Gets the content element from the cache or Elasticsearch.
+   * The ETag and Last-Modified headers are derived from the document version.
+   * The servlet thread is released while the document is searched, it is serialized by the task
+   * executor.
+   */
+  @GetMapping("{id}")
+  public CompletableFuture<ResponseEntity<byte[]>> getContent(
+      @PathVariable("id") String id, @RequestHeader HttpHeaders requestHeaders) {
+    Optional<ContentCache.Document> cached = contentCache.getIfPresent(id);
+    if (cached.isPresent()) {
+      return CompletableFuture.completedFuture(toResponse(cached.get(), requestHeaders));
     }
-    return projectContentId;
+    return getEsDoc(id)
+        .thenApplyAsync(
+            lookup ->
+                lookup
+                    .esDoc()
+                    .filter(hit -> hit.source() != null)
+                    .map(
+                        hit -> {
+                          ContentCache.Document document =
+                              new ContentCache.Document(
+                                  serialize(hit.source()), ResourceVersion.of(hit));
+                          contentCache.put(id, document, lookup.generation());
+                          return toResponse(document, requestHeaders);
+                        })
+                    .orElseGet(() -> ResponseEntity.notFound().build()),
+            taskExecutor);
+  }
+
+  private static ResponseEntity<byte[]> toResponse(
+      ContentCache.Document document, HttpHeaders requestHeaders) {
+    return document
+        .version()
+        .toResponse(requestHeaders, MediaType.APPLICATION_JSON, document::json);
   }
 
-  private String lookUpProjectContentId() {
-    return cmaClient.contentTypes().fetchAll().getItems().stream()
-        .filter(
-            cmaContentType ->
-                cmaContentType.getName().equalsIgnoreCase(configuration.getProjectContentType()))
-        .findFirst()
-        .map(CMAContentType::getId)
-        .orElseThrow(() -> new RuntimeException("Project Content Type not Found"));
+  private static ResponseEntity<byte[]> toResponse(
+      PreviewCache.Preview preview, HttpHeaders requestHeaders) {
+    return preview
+        .version()
+        .toResponse(requestHeaders, MediaType.APPLICATION_JSON, preview::json);
   }
 
   /**
-   * Gets the content element from Elasticsearch.
+   * Serializes a document as the message converters do.
    */
-  @GetMapping("{id}")
-  public ResponseEntity<Map<String, Object>> getContent(@PathVariable("id") String id) {
-    return ResponseEntity.of(getEsDoc(id));
+  private byte[] serialize(Map<?, ?> source) {
+    try {
+      return objectMapper.writeValueAsBytes(source);
+    } catch (JsonProcessingException ex) {
+      LOG.error("Error serializing content", ex);
+      throw new WebApplicationException(
+          "Error serializing content", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  /**
+   * Gets a document by id, concurrent requests of the same id share the lookup in flight.
+   * Documents of known location are read from their index, the rest are searched in the content
+   * alias. The shared documents must not be modified.
+   */
+  private CompletableFuture<Lookup> getEsDoc(String id) {
+    return searches.execute(
+        id,
+        () -> {
+          long generation = contentCache.generation();
+          return contentLocations
+              .get(id)
+              .map(
+                  index ->
+                      getEsDoc(index, id)
+                          .thenCompose(
+                              esDoc ->
+                                  esDoc.isPresent()
+                                      ? CompletableFuture.completedFuture(esDoc)
+                                      : searchEsDoc(id)))
+              .orElseGet(() -> searchEsDoc(id))
+              .thenApply(esDoc -> new Lookup(esDoc, generation));
+        });
+  }
+
+  /**
+   * Gets a document from an index, empty if it is not there or the index does not exist.
+   */
+  private CompletableFuture<Optional<Hit<Map>>> getEsDoc(String index, String id) {
+    return esClient
+        .get(g -> g.index(index).id(id), Map.class)
+        .thenApply(response -> Optional.of(response).filter(GetResult::found).map(this::toHit))
+        .exceptionally(
+            ex -> {
+              LOG.debug("Content {} not read from index {}", id, index, ex);
+              return Optional.empty();
+            });
   }
 
-  @SneakyThrows
-  private Optional<Map<String, Object>> getEsDoc(String id) {
-    SearchResponse<Map> searchResponse =
-        esClient.search(
+  /**
+   * Searches a document in all the content indices and records its location.
+   */
+  private CompletableFuture<Optional<Hit<Map>>> searchEsDoc(String id) {
+    return esClient
+        .search(
             s -> s
                 .index(CONTENT_ALIAS)
-                .query(q -> q.term(t -> t.field("id").value(v -> v.stringValue(id))))
+                .query(q -> q.term(t -> t.field(ID_FIELD).value(v -> v.stringValue(id))))
+                .seqNoPrimaryTerm(true)
                 .size(1),
-            Map.class);
+            Map.class)
+        .thenApply(
+            searchResponse -> {
+              Optional<Hit<Map>> esDoc = searchResponse.hits().hits().stream().findFirst();
+              esDoc.ifPresentOrElse(
+                  hit -> contentLocations.put(id, hit.index()),
+                  () -> contentLocations.invalidate(id));
+              return esDoc;
+            });
+  }
+
+  /**
+   * Gets several content elements from Elasticsearch, the response maps the ids to the documents
+   * in the order of the request. Ids not found are not included.
+   * The ETag header is derived from the versions of the documents.
+   */
+  @GetMapping(params = "ids")
+  public CompletableFuture<ResponseEntity<Map<String, Object>>> getContents(
+      @RequestParam("ids") List<String> ids, @RequestHeader HttpHeaders requestHeaders) {
+    return getEsDocs(ids)
+        .thenApply(hits -> ResourceVersion.of(hits).toResponse(requestHeaders, () -> toMap(hits)));
+  }
 
-    return !searchResponse.hits().hits().isEmpty()
-        ? Optional.ofNullable(searchResponse.hits().hits().get(0).source())
-        : Optional.empty();
+  /**
+   * Same as {@link #getContents(List, HttpHeaders)} for lists of ids too long for a URL.
+   */
+  @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+  public CompletableFuture<ResponseEntity<Map<String, Object>>> postContents(
+      @RequestBody List<String> ids) {
+    return getEsDocs(ids).thenApply(hits -> ResponseEntity.ok(toMap(hits)));
+  }
+
+  private static Map<String, Object> toMap(List<Hit<Map>> hits) {
+    Map<String, Object> esDocs = new LinkedHashMap<>();
+    hits.forEach(hit -> esDocs.put(hit.id(), hit.source()));
+    return esDocs;
   }
 
   /**
-   * Get the tags fields of an es document.
+   * Gets several documents, in the order of the ids, with at most two concurrent requests: a
+   * multi get of the documents of known location and a search of the rest. Documents not found
+   * in their recorded index are searched afterwards.
    */
-  private Map<String, Object> getTagFields(Map<String, Object> sourceMap) {
-    return sourceMap.entrySet().stream()
-        .filter(entry -> tagFields.contains(entry.getKey()))
-        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+  private CompletableFuture<List<Hit<Map>>> getEsDocs(Collection<String> ids) {
+    Set<String> distinctIds = new LinkedHashSet<>();
+    ids.stream().map(String::trim).filter(id -> !id.isEmpty()).forEach(distinctIds::add);
+    if (distinctIds.size() > MAX_BATCH_SIZE) {
+      throw new WebApplicationException(
+          String.format("At most %d ids can be requested at once", MAX_BATCH_SIZE),
+          HttpStatus.BAD_REQUEST);
+    }
+
+    Map<String, String> locatedIds = new LinkedHashMap<>();
+    List<String> unlocatedIds = new ArrayList<>();
+    distinctIds.forEach(
+        id ->
+            contentLocations
+                .get(id)
+                .ifPresentOrElse(index -> locatedIds.put(id, index), () -> unlocatedIds.add(id)));
+
+    CompletableFuture<List<Hit<Map>>> located =
+        mgetEsDocs(locatedIds)
+            .thenCompose(
+                hits -> {
+                  Set<String> missingIds = new LinkedHashSet<>(locatedIds.keySet());
+                  hits.forEach(hit -> missingIds.remove(hit.id()));
+                  return searchEsDocs(missingIds)
+                      .thenApply(
+                          searched -> {
+                            List<Hit<Map>> all = new ArrayList<>(hits);
+                            all.addAll(searched);
+                            return all;
+                          });
+                });
+    return located.thenCombine(
+        searchEsDocs(unlocatedIds),
+        (fromIndices, searched) -> {
+          Map<String, Hit<Map>> byId = new HashMap<>();
+          fromIndices.forEach(hit -> byId.putIfAbsent(hit.id(), hit));
+          searched.forEach(hit -> byId.putIfAbsent(hit.id(), hit));
+          return distinctIds.stream().map(byId::get).filter(Objects::nonNull).toList();
+        });
+  }
+
+  /**
+   * Gets documents from their indices, documents not found or failed are not returned.
+   */
+  private CompletableFuture<List<Hit<Map>>> mgetEsDocs(Map<String, String> locatedIds) {
+    if (locatedIds.isEmpty()) {
+      return CompletableFuture.completedFuture(List.of());
+    }
+    return esClient
+        .mget(
+            m -> {
+              locatedIds.forEach((id, index) -> m.docs(d -> d.index(index).id(id)));
+              return m;
+            },
+            Map.class)
+        .thenApply(
+            response ->
+                response.docs().stream()
+                    .filter(MultiGetResponseItem::isResult)
+                    .map(MultiGetResponseItem::result)
+                    .filter(GetResult::found)
+                    .map(this::toHit)
+                    .toList())
+        .exceptionally(
+            ex -> {
+              LOG.debug("Contents {} not read from their indices", locatedIds.keySet(), ex);
+              return List.of();
+            });
+  }
+
+  /**
+   * Searches documents in all the content indices and records their locations.
+   * An id can be found in more than one index, so up to one hit per index is requested for each.
+   */
+  private CompletableFuture<List<Hit<Map>>> searchEsDocs(Collection<String> ids) {
+    if (ids.isEmpty()) {
+      return CompletableFuture.completedFuture(List.of());
+    }
+    List<FieldValue> values = ids.stream().map(FieldValue::of).toList();
+    return esClient
+        .search(
+            s -> s
+                .index(CONTENT_ALIAS)
+                .query(q -> q.terms(t -> t.field(ID_FIELD).terms(v -> v.value(values))))
+                .seqNoPrimaryTerm(true)
+                .size(ids.size() * contentIndices),
+            Map.class)
+        .thenApply(
+            searchResponse -> {
+              List<Hit<Map>> hits = searchResponse.hits().hits();
+              Set<String> missingIds = new HashSet<>(ids);
+              hits.forEach(
+                  hit -> {
+                    contentLocations.put(hit.id(), hit.index());
+                    missingIds.remove(hit.id());
+                  });
+              missingIds.forEach(contentLocations::invalidate);
+              return hits;
+            });
+  }
+
+  /**
+   * Hit of a document read by id, the version fields are the same as in a search hit.
+   */
+  private Hit<Map> toHit(GetResult<Map> response) {
+    return Hit.of(
+        h -> h
+            .index(response.index())
+            .id(response.id())
+            .seqNo(response.seqNo())
+            .primaryTerm(response.primaryTerm())
+            .source(response.source()));
   }
 
   /**
    * Builds a content response using the Contentful preview API.
+   * The Contentful entry, the content types on first use and the tags of the indexed
+   * document are fetched concurrently, the blocking Contentful calls in the preview executor, which
+   * also builds the preview. Previews rejected by a full preview executor are answered with 503.
+   * Previews are cached until a change is notified by the synchronization webhook.
    */
   @GetMapping("{id}/preview")
-  public ResponseEntity<Map<String, Object>> getContentPreview(@PathVariable("id") String id) {
+  public CompletableFuture<ResponseEntity<byte[]>> getContentPreview(
+      @PathVariable("id") String id, @RequestHeader HttpHeaders requestHeaders) {
+    Optional<PreviewCache.Preview> cached = previewCache.getIfPresent(id);
+    if (cached.isPresent()) {
+      return CompletableFuture.completedFuture(toResponse(cached.get(), requestHeaders));
+    }
+    long generation = previewCache.generation();
+    CompletableFuture<CDAEntry> cdaEntry =
+        supplyPreview(() -> contentfulClient.fetchPreviewEntry(id));
+    CompletableFuture<String> projectId =
+        contentTypeRegistry.isLoaded()
+            ? CompletableFuture.completedFuture(contentTypeRegistry.getProjectContentTypeId())
+            : supplyPreview(contentTypeRegistry::getProjectContentTypeId);
+    CompletableFuture<Optional<Map<String, Object>>> tags =
+        getEsDoc(id)
+            .thenApply(
+                lookup ->
+                    lookup
+                        .esDoc()
+                        .map(hit -> (Map<String, Object>) hit.source())
+                        .map(tagFields::of));
+
+    return cdaEntry
+        .thenCombineAsync(
+            projectId,
+            (entry, projectTypeId) ->
+                new EsDocBuilder(entry, vocabularies.get(), projectTypeId, o -> {}).toEsDoc(),
+            previewExecutor)
+        .thenCombineAsync(
+            tags,
+            (esDoc, tagFields) -> {
+              tagFields.ifPresent(esDoc::putAll);
+              byte[] json = serialize(esDoc);
+              PreviewCache.Preview preview =
+                  new PreviewCache.Preview(json, ResourceVersion.of(json));
+              previewCache.put(id, preview, generation);
+              return toResponse(preview, requestHeaders);
+            },
+            previewExecutor)
+        .exceptionally(
+            ex -> {
+              if (ex.getCause() instanceof CDAResourceNotFoundException) {
+                return ResponseEntity.of(Optional.empty());
+              }
+              if (ex.getCause() instanceof RejectedExecutionException) {
+                throw new CompletionException(tooManyPreviews());
+              }
+              throw ex instanceof CompletionException completionException
+                  ? completionException
+                  : new CompletionException(ex);
+            });
+  }
+
+  /**
+   * Runs a blocking Contentful call in the preview executor.
+   */
+  private <T> CompletableFuture<T> supplyPreview(Supplier<T> call) {
     try {
-      CDAEntry cdaEntry = fetchEntry(cdaPreviewClient, id, LEVELS, LOCALE_PARAM, ALL);
-      Map<String, Object> esDoc =
-          new EsDocBuilder(cdaEntry, vocabularyTerms, getProjectContentId(), o -> {}).toEsDoc();
-      getEsDoc(id).map(this::getTagFields).ifPresent(esDoc::putAll);
-      return ResponseEntity.ok(esDoc);
-    } catch (CDAResourceNotFoundException ex) {
-      return ResponseEntity.of(Optional.empty());
+      return CompletableFuture.supplyAsync(call, previewExecutor);
+    } catch (RejectedExecutionException ex) {
+      throw tooManyPreviews();
     }
   }
 
-  @RateLimiter(name = "contentfulApi")
-  @Retry(name = "contentfulApiRetry")
-  public CDAEntry fetchEntry(
-      CDAClient cdaPreviewClient, String id, int levels, String localeParam, String all) {
-    return cdaPreviewClient.fetch(CDAEntry.class).include(levels).where(localeParam, all).one(id);
+  /**
+   * Error of a preview rejected by the full preview executor.
+   */
+  private static WebApplicationException tooManyPreviews() {
+    return new WebApplicationException(
+        "Too many concurrent previews", HttpStatus.SERVICE_UNAVAILABLE);
   }
 }
@@ -13,26 +13,39 @@
  */
 package org.gbif.content.resource;
 
-import co.elastic.clients.elasticsearch.core.search.Hit;
-
 import org.gbif.content.config.ContentWsProperties;
 import org.gbif.content.exception.WebApplicationException;
+import org.gbif.content.model.DataUseDoc;
+import org.gbif.content.model.EventDoc;
+import org.gbif.content.model.FeedDocument;
+import org.gbif.content.model.NewsDoc;
+import org.gbif.content.service.FeedCache;
+import org.gbif.content.service.ProgrammeCache;
+import org.gbif.content.utils.ContentEncoding;
 import org.gbif.content.utils.ConversionUtil;
+import org.gbif.content.utils.ResourceVersion;
+import org.gbif.content.utils.RssFeedWriter;
+import org.gbif.content.utils.SingleFlight;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import java.util.Locale;
-import java.util.Map;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.core.GetRequest;
 import co.elastic.clients.elasticsearch.core.GetResponse;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
-import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
 import co.elastic.clients.elasticsearch._types.query_dsl.DateRangeQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
@@ -41,26 +54,31 @@ import co.elastic.clients.elasticsearch._types.query_dsl.MatchAllQuery;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.sun.syndication.feed.synd.SyndEntry;
 import com.sun.syndication.feed.synd.SyndFeed;
 import com.sun.syndication.feed.synd.SyndFeedImpl;
-import com.sun.syndication.io.FeedException;
-import com.sun.syndication.io.SyndFeedOutput;
 
 import biweekly.Biweekly;
 import biweekly.ICalendar;
 
 /**
  * Resource class that provides RSS and iCal feeds for events and news.
+ * Searches are asynchronous, the servlet threads are released while ElasticSearch is working and
+ * the feeds are rendered by the application task executor.
  */
 @RequestMapping(value = "newsroom", produces = MediaType.APPLICATION_JSON_VALUE)
 @RestController
@@ -72,8 +90,12 @@ public class EventsResource {
 
   private static final String CREATED_AT_FIELD = "createdAt";
 
+  private static final String UPDATED_AT_FIELD = "updatedAt";
+
   private static final String GBIF_REGION_FIELD = "gbifRegion";
 
+  private static final String PROGRAMME_TAG_FIELD = "programmeTag";
+
   private static final Pattern HYPHEN = Pattern.compile("-");
 
   /**
@@ -95,10 +117,25 @@ public class EventsResource {
   /** RFC 5545 registered media type */
   private static final String MEDIA_TYPE_CAL = "text/calendar";
 
-  private final ElasticsearchClient esClient;
+  /** Feed cache key of the UPCOMING_EVENTS filter */
+  private static final String UPCOMING_EVENTS_KEY = "upcoming";
+
+  private final ElasticsearchAsyncClient esClient;
+
+  private final Executor taskExecutor;
 
   private final ContentWsProperties configuration;
 
+  private final FeedCache feedCache;
+
+  private final ProgrammeCache programmeCache;
+
+  /** Searches in flight by feed, identical concurrent requests share a single search */
+  private final SingleFlight<FeedCache.Key, Search> searches = new SingleFlight<>();
+
+  /** Hits of a feed search and the generation of the feed cache when the search started */
+  private record Search(List<?> hits, long generation) {}
+
   /**
    * Creates a new Rss Feed using the common GBIF content.
    */
@@ -128,111 +165,145 @@ public class EventsResource {
   /**
    * Full constructor.
    *
-   * @param esClient      ElasticSearch client
-   * @param configuration configuration settings
+   * @param esClient       asynchronous ElasticSearch client
+   * @param taskExecutor   executor of the conversion and rendering of the search results
+   * @param configuration  configuration settings
+   * @param feedCache      cache of rendered feeds
+   * @param programmeCache programme ids by acronym
    */
-  public EventsResource(ElasticsearchClient esClient, ContentWsProperties configuration) {
+  public EventsResource(
+      ElasticsearchAsyncClient esClient,
+      @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+          Executor taskExecutor,
+      ContentWsProperties configuration,
+      FeedCache feedCache,
+      ProgrammeCache programmeCache) {
     this.esClient = esClient;
+    this.taskExecutor = taskExecutor;
     this.configuration = configuration;
+    this.feedCache = feedCache;
+    this.programmeCache = programmeCache;
   }
 
   /**
    * Upcoming events in iCal format.
    */
   @GetMapping(path = "events/calendar/upcoming.ics", produces = MEDIA_TYPE_CAL)
-  public String getUpcomingEventsICal(
-      @RequestParam(value = "limit", required = false) Integer limit) {
-    ICalendar iCal = new ICalendar();
-    executeQuery(
+  public CompletableFuture<ResponseEntity<StreamingResponseBody>> getUpcomingEventsICal(
+      @RequestParam(value = "limit", required = false) Integer limit,
+      @RequestHeader HttpHeaders requestHeaders) {
+    return getFeed(
+        FeedFormat.ICAL,
+        new FeedQuery<>(
+            EventDoc.class,
             UPCOMING_EVENTS,
+            UPCOMING_EVENTS_KEY,
             START_FIELD,
             configuration.getEsEventsIndex(),
-            limit,
-            CALENDAR_DEFAULT_SIZE,
-            SortOrder.Asc)
-        .hits()
-        .hits()
-        .forEach(
-            searchHit -> {
-              try {
-                iCal.addEvent(
-                    ConversionUtil.toVEvent(
-                        searchHit,
-                        configuration.getDefaultLocale(),
-                        configuration.getGbifPortalUrl() + configuration.getEsEventsIndex()));
-              } catch (DateTimeParseException ex) {
-                LOG.warn(
-                    "Skipping event {} in calendar feed due to unparsable date: {}",
-                    searchHit.id(),
-                    ex.getMessage());
-              }
-            });
-    return Biweekly.write(iCal).go();
+            configuration.getDefaultLocale(),
+            Optional.ofNullable(limit).orElse(CALENDAR_DEFAULT_SIZE),
+            SortOrder.Asc),
+        requestHeaders,
+        this::writeICal);
   }
 
   /**
    * Upcoming events RSS feed.
    */
   @GetMapping(path = "events/upcoming.xml", produces = MediaType.APPLICATION_ATOM_XML_VALUE)
-  public String getUpComingEvents(@RequestParam(value = "limit", required = false) Integer limit) {
+  public CompletableFuture<ResponseEntity<StreamingResponseBody>> getUpComingEvents(
+      @RequestParam(value = "limit", required = false) Integer limit,
+      @RequestHeader HttpHeaders requestHeaders) {
     return toXmlAtomFeed(
         newEventsFeed(),
-        UPCOMING_EVENTS,
-        START_FIELD,
-        configuration.getEsEventsIndex(),
-        limit,
-        SortOrder.Asc);
+        new FeedQuery<>(
+            EventDoc.class,
+            UPCOMING_EVENTS,
+            UPCOMING_EVENTS_KEY,
+            START_FIELD,
+            configuration.getEsEventsIndex(),
+            configuration.getDefaultLocale(),
+            Optional.ofNullable(limit).orElse(DEFAULT_SIZE),
+            SortOrder.Asc),
+        requestHeaders);
   }
 
   /**
    * Single event RSS feed in Atom format.
    */
   @GetMapping(path = "events/{eventId}", produces = MEDIA_TYPE_CAL)
-  public ResponseEntity<String> getEvent(@PathVariable("eventId") String eventId) {
-    try {
-      GetResponse<Map> response = esClient.get(
-          GetRequest.of(g -> g.index(configuration.getEsEventsIndex()).id(eventId)),
-          Map.class);
-
-      return Optional.ofNullable(
-              ConversionUtil.toVEvent(
-                  response,
-                  configuration.getDefaultLocale(),
-                  configuration.getGbifPortalUrl() + configuration.getEsEventsIndex()))
-          .map(
-              event -> {
-                ICalendar iCal = new ICalendar();
-                iCal.addEvent(event);
-                return ResponseEntity.ok(Biweekly.write(iCal).go());
-              })
-          .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
-    } catch (IOException ex) {
-      throw new RuntimeException(ex);
-    }
+  public CompletableFuture<ResponseEntity<String>> getEvent(
+      @PathVariable("eventId") String eventId, @RequestHeader HttpHeaders requestHeaders) {
+    return esClient
+        .get(
+            GetRequest.of(g -> g
+                .index(configuration.getEsEventsIndex())
+                .id(eventId)
+                .sourceIncludes(FeedFormat.ICAL.sourceIncludes(configuration.getDefaultLocale()))),
+            EventDoc.class)
+        .thenApplyAsync(response -> toICalResponse(response, requestHeaders), taskExecutor);
+  }
+
+  /**
+   * Translates an event into a single event iCal response.
+   */
+  private ResponseEntity<String> toICalResponse(
+      GetResponse<EventDoc> response, HttpHeaders requestHeaders) {
+    return Optional.ofNullable(
+            ConversionUtil.toVEvent(
+                response,
+                configuration.getDefaultLocale(),
+                configuration.getGbifPortalUrl() + configuration.getEsEventsIndex()))
+        .map(
+            event ->
+                ResourceVersion.of(response)
+                    .toResponse(
+                        requestHeaders,
+                        () -> {
+                          ICalendar iCal = new ICalendar();
+                          iCal.addEvent(event);
+                          return Biweekly.write(iCal).go();
+                        }))
+        .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
   }
 
   /**
    * News RSS feeds.
    */
   @GetMapping(path = "news/rss", produces = MediaType.APPLICATION_ATOM_XML_VALUE)
-  public String getNews(@RequestParam(value = "limit", required = false) Integer limit) {
+  public CompletableFuture<ResponseEntity<StreamingResponseBody>> getNews(
+      @RequestParam(value = "limit", required = false) Integer limit,
+      @RequestHeader HttpHeaders requestHeaders) {
     return toXmlAtomFeed(
-        newNewsFeed(), null, CREATED_AT_FIELD, configuration.getEsNewsIndex(), limit);
+        newNewsFeed(),
+        newsQuery(
+            NewsDoc.class,
+            null,
+            "",
+            configuration.getEsNewsIndex(),
+            configuration.getDefaultLocale(),
+            limit),
+        requestHeaders);
   }
 
   /**
    * New RSS feed for GBIF region.
    */
   @GetMapping(path = "news/rss/{gbifRegion}", produces = MediaType.APPLICATION_ATOM_XML_VALUE)
-  public String getNewsByRegion(
+  public CompletableFuture<ResponseEntity<StreamingResponseBody>> getNewsByRegion(
       @PathVariable("gbifRegion") String region,
-      @RequestParam(value = "limit", required = false) Integer limit) {
+      @RequestParam(value = "limit", required = false) Integer limit,
+      @RequestHeader HttpHeaders requestHeaders) {
     return toXmlAtomFeed(
         newNewsFeed(),
-        Query.of(q -> q.term(t -> t.field(GBIF_REGION_FIELD).value(region))),
-        CREATED_AT_FIELD,
-        configuration.getEsNewsIndex(),
-        limit);
+        newsQuery(
+            NewsDoc.class,
+            Query.of(q -> q.term(t -> t.field(GBIF_REGION_FIELD).value(region))),
+            GBIF_REGION_FIELD + ':' + region,
+            configuration.getEsNewsIndex(),
+            configuration.getDefaultLocale(),
+            limit),
+        requestHeaders);
   }
 
   /**
@@ -241,51 +312,60 @@ public class EventsResource {
   @GetMapping(
       path = "news/rss/{acronym}/{language}",
       produces = MediaType.APPLICATION_ATOM_XML_VALUE)
-  public String getProgramNews(
+  public CompletableFuture<ResponseEntity<StreamingResponseBody>> getProgramNews(
       @PathVariable("acronym") String acronym,
       @PathVariable("language") String language,
-      @RequestParam(value = "limit", required = false) Integer limit) {
+      @RequestParam(value = "limit", required = false) Integer limit,
+      @RequestHeader HttpHeaders requestHeaders) {
     return toXmlAtomFeed(
-        newNewsFeed(),
-        Query.of(q -> q.term(t -> t.field("programmeTag").value(findProgrammeId(acronym)))),
-        CREATED_AT_FIELD,
-        configuration.getEsNewsIndex(),
-        getLocale(language),
-        limit);
+        newNewsFeed(), programmeNewsQuery(acronym, language, limit), requestHeaders);
   }
 
   /**
    * JSON News for a program and language.
    */
   @GetMapping(path = "news/json/{acronym}/{language}", produces = MediaType.APPLICATION_JSON_VALUE)
-  public List<SyndEntry> getProgrammeNewsJson(
+  public CompletableFuture<ResponseEntity<List<SyndEntry>>> getProgrammeNewsJson(
       @PathVariable("acronym") String acronym,
       @PathVariable("language") String language,
-      @RequestParam(value = "limit", required = false) Integer limit) {
-    return executeQuery(
-            Query.of(q -> q.term(t -> t.field("programmeTag").value(findProgrammeId(acronym)))),
-            CREATED_AT_FIELD,
-            configuration.getEsNewsIndex(),
-            limit)
-        .hits()
-        .hits()
-        .stream()
-        .map(
-            searchHit ->
-                ConversionUtil.toFeedEntry(
-                    searchHit,
-                    getLocale(language),
-                    configuration.getGbifPortalUrl() + configuration.getEsNewsIndex()))
-        .toList();
+      @RequestParam(value = "limit", required = false) Integer limit,
+      @RequestHeader HttpHeaders requestHeaders) {
+    FeedQuery<NewsDoc> query = programmeNewsQuery(acronym, language, limit);
+    return executeQuery(query, FeedFormat.RSS)
+        .thenApplyAsync(
+            hits ->
+                ResourceVersion.of(hits)
+                    .toResponse(
+                        requestHeaders,
+                        () ->
+                            hits.stream()
+                                .map(
+                                    searchHit ->
+                                        ConversionUtil.toFeedEntry(
+                                            searchHit,
+                                            query.locale(),
+                                            configuration.getGbifPortalUrl() + query.idxName()))
+                                .toList()),
+            taskExecutor);
   }
 
   /**
    * Data uses RSS feed.
    */
   @GetMapping(path = "uses/rss", produces = MediaType.APPLICATION_ATOM_XML_VALUE)
-  public String getDataUses(@RequestParam(value = "limit", required = false) Integer limit) {
+  public CompletableFuture<ResponseEntity<StreamingResponseBody>> getDataUses(
+      @RequestParam(value = "limit", required = false) Integer limit,
+      @RequestHeader HttpHeaders requestHeaders) {
     return toXmlAtomFeed(
-        newNewsFeed(), null, CREATED_AT_FIELD, configuration.getEsDataUseIndex(), limit);
+        newNewsFeed(),
+        newsQuery(
+            DataUseDoc.class,
+            null,
+            "",
+            configuration.getEsDataUseIndex(),
+            configuration.getDefaultLocale(),
+            limit),
+        requestHeaders);
   }
 
   /**
@@ -308,28 +388,46 @@ public class EventsResource {
   }
 
   /**
-   * Builds a programme:id query builder.
+   * Query of the newest documents of an index.
+   */
+  private static <T extends FeedDocument> FeedQuery<T> newsQuery(
+      Class<T> documentClass,
+      Query filter,
+      String filterKey,
+      String idxName,
+      String locale,
+      Integer limit) {
+    return new FeedQuery<>(
+        documentClass,
+        filter,
+        filterKey,
+        CREATED_AT_FIELD,
+        idxName,
+        locale,
+        Optional.ofNullable(limit).orElse(DEFAULT_SIZE),
+        SortOrder.Desc);
+  }
+
+  /**
+   * Query of the newest news of a programme.
    */
-  private Query programmeQuery(String acronym) {
-    return Query.of(q -> q.term(t -> t
-      .field("programmeTag")
-      .value(findProgrammeId(acronym))
-    ));
+  private FeedQuery<NewsDoc> programmeNewsQuery(String acronym, String language, Integer limit) {
+    String programmeId = findProgrammeId(acronym);
+    return newsQuery(
+        NewsDoc.class,
+        Query.of(q -> q.term(t -> t.field(PROGRAMME_TAG_FIELD).value(programmeId))),
+        PROGRAMME_TAG_FIELD + ':' + programmeId,
+        configuration.getEsNewsIndex(),
+        getLocale(language),
+        limit);
   }
 
   /**
    * Finds the programme id by its acronym.
    */
   private String findProgrammeId(String acronym) {
-    SearchResponse<Map> response =
-        executeQuery(
-            Query.of(q -> q.term(t -> t.field("acronym").value(acronym))),
-            CREATED_AT_FIELD,
-            configuration.getEsProgrammeIndex(),
-            1);
-    return response.hits().hits().stream()
-        .map(Hit::id)
-        .findFirst()
+    return programmeCache
+        .getId(acronym)
         .orElseThrow(
             () ->
                 new WebApplicationException(
@@ -338,117 +436,294 @@ public class EventsResource {
   }
 
   /**
-   * Executes a query and translates the results into XML Atom Feeds.
+   * Gets a feed from the cache, the query is only executed if the feed is not cached.
+   * Conditional requests are answered before rendering the feed. Feeds bigger than the maximum
+   * cached size are not cached and are streamed to the client while they are rendered.
+   * Cached feeds are returned as completed futures, without leaving the servlet thread.
    */
-  private String toXmlAtomFeed(
-      SyndFeed feed, Query filter, String dateSortField, String idxName, Integer limit) {
-    return toXmlAtomFeed(
-        feed, filter, dateSortField, idxName, configuration.getDefaultLocale(), limit, SortOrder.Desc);
+  private <T extends FeedDocument>
+      CompletableFuture<ResponseEntity<StreamingResponseBody>> getFeed(
+      FeedFormat format,
+      FeedQuery<T> query,
+      HttpHeaders requestHeaders,
+      FeedRenderer<T> renderer) {
+    if (query.size() > configuration.getMaxCachedFeedSize()) {
+      return executeQuery(query, format)
+          .thenApply(
+              hits ->
+                  ResourceVersion.of(hits)
+                      .toResponse(
+                          requestHeaders,
+                          format.contentType,
+                          () -> out -> renderer.render(query, hits, out)));
+    }
+    FeedCache.Key key = query.cacheKey(format.key);
+    Optional<FeedCache.Feed> cached = feedCache.getIfPresent(key);
+    if (cached.isPresent()) {
+      return CompletableFuture.completedFuture(toResponse(cached.get(), format, requestHeaders));
+    }
+    return executeSearch(query, format)
+        .thenApplyAsync(
+            search -> {
+              List<Hit<T>> hits = hits(search);
+              ResourceVersion version = ResourceVersion.of(hits);
+              Optional<ResourceVersion> current = currentVersion(version, requestHeaders);
+              if (current.isPresent()) {
+                return varyByEncoding(current.get().notModified(), null, null);
+              }
+              FeedCache.Feed feed =
+                  feedCache.get(
+                      key,
+                      search.generation(),
+                      () -> new FeedCache.Feed(render(renderer, query, hits), version));
+              return toResponse(feed, format, requestHeaders);
+            },
+            taskExecutor);
   }
 
-  private String toXmlAtomFeed(
-      SyndFeed feed,
-      Query filter,
-      String dateSortField,
-      String idxName,
-      Integer limit,
-      SortOrder sortOrder) {
-    return toXmlAtomFeed(
-        feed, filter, dateSortField, idxName, configuration.getDefaultLocale(), limit, sortOrder);
+  /**
+   * Version of a feed held by the client, if current, either in the negotiated encoding or
+   * unencoded.
+   */
+  private static Optional<ResourceVersion> currentVersion(
+      ResourceVersion version, HttpHeaders requestHeaders) {
+    return Stream.concat(
+            ContentEncoding.negotiate(requestHeaders).map(version::encoded).stream(),
+            Stream.of(version))
+        .filter(candidate -> candidate.isNotModified(requestHeaders))
+        .findFirst();
   }
 
   /**
-   * Executes a query and translates the results into XML Atom Feeds.
+   * Response of a rendered feed, the precompressed body is sent if the client accepts its
+   * encoding. Each encoding has its own ETag.
    */
-  private String toXmlAtomFeed(
-      SyndFeed feed,
-      Query filter,
-      String dateSortField,
-      String idxName,
-      String locale,
-      Integer limit) {
-    return toXmlAtomFeed(feed, filter, dateSortField, idxName, locale, limit, SortOrder.Desc);
+  private static ResponseEntity<StreamingResponseBody> toResponse(
+      FeedCache.Feed feed, FeedFormat format, HttpHeaders requestHeaders) {
+    Optional<ContentEncoding> encoding =
+        ContentEncoding.negotiate(requestHeaders).filter(feed.encodedBodies()::containsKey);
+    byte[] body = encoding.map(feed.encodedBodies()::get).orElse(feed.body());
+    ResponseEntity<StreamingResponseBody> response =
+        encoding
+            .map(feed.version()::encoded)
+            .orElse(feed.version())
+            .toResponse(requestHeaders, format.contentType, () -> out -> out.write(body));
+    return varyByEncoding(response, encoding.orElse(null), body);
   }
 
-  private String toXmlAtomFeed(
-      SyndFeed feed,
-      Query filter,
-      String dateSortField,
-      String idxName,
-      String locale,
-      Integer limit,
-      SortOrder sortOrder) {
+  /**
+   * Adds the Vary header of cached feeds and, to a response with a body, its encoding and length.
+   */
+  private static ResponseEntity<StreamingResponseBody> varyByEncoding(
+      ResponseEntity<StreamingResponseBody> response, ContentEncoding encoding, byte[] body) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.addAll(response.getHeaders());
+    headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (response.hasBody()) {
+      Optional.ofNullable(encoding)
+          .ifPresent(e -> headers.set(HttpHeaders.CONTENT_ENCODING, e.getCoding()));
+      headers.setContentLength(body.length);
+    }
+    return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+  }
+
+  /**
+   * Renders a feed into a byte array.
+   */
+  private static <T extends FeedDocument> byte[] render(
+      FeedRenderer<T> renderer, FeedQuery<T> query, List<Hit<T>> hits) {
     try {
-      feed.setEntries(
-          executeQuery(filter, dateSortField, idxName, limit, sortOrder).hits().hits().stream()
-              .map(
-                  searchHit ->
-                      ConversionUtil.toFeedEntry(
-                          searchHit, locale, configuration.getGbifPortalUrl() + idxName))
-              .toList());
-      StringWriter writer = new StringWriter();
-      new SyndFeedOutput().output(feed, writer);
-      return writer.toString();
-    } catch (IOException | FeedException ex) {
-      LOG.error("Error generating events RSS feed", ex);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      renderer.render(query, hits, out);
+      return out.toByteArray();
+    } catch (IOException ex) {
+      LOG.error("Error generating feed", ex);
 
       throw new WebApplicationException(
-          "Error generating events RSS feed", HttpStatus.INTERNAL_SERVER_ERROR);
+          "Error generating feed", HttpStatus.INTERNAL_SERVER_ERROR);
     }
   }
 
-  private SearchResponse<Map> executeQuery(
-      Query filter, String dateSortField, String idxName, Integer limit) {
-    return executeQuery(filter, dateSortField, idxName, limit, DEFAULT_SIZE, SortOrder.Desc);
+  /**
+   * Gets a XML Atom Feed from the cache or executes the query and translates the results.
+   */
+  private <T extends FeedDocument>
+      CompletableFuture<ResponseEntity<StreamingResponseBody>> toXmlAtomFeed(
+      SyndFeed feed, FeedQuery<T> query, HttpHeaders requestHeaders) {
+    return getFeed(
+        FeedFormat.RSS,
+        query,
+        requestHeaders,
+        (q, hits, out) -> writeXmlAtomFeed(feed, q, hits, out));
   }
 
-  private SearchResponse<Map> executeQuery(
-      Query filter,
-      String dateSortField,
-      String idxName,
-      Integer limit,
-      SortOrder sortOrder) {
-    return executeQuery(filter, dateSortField, idxName, limit, DEFAULT_SIZE, sortOrder);
+  /**
+   * Translates search results into a XML Atom Feed, each entry is written as soon as it is
+   * converted.
+   */
+  private <T extends FeedDocument> void writeXmlAtomFeed(
+      SyndFeed feed, FeedQuery<T> query, List<Hit<T>> hits, OutputStream out)
+      throws IOException {
+    try (RssFeedWriter writer = new RssFeedWriter(out, feed)) {
+      for (Hit<T> searchHit : hits) {
+        writer.write(
+            ConversionUtil.toFeedEntry(
+                searchHit, query.locale(), configuration.getGbifPortalUrl() + query.idxName()));
+      }
+    }
   }
 
-  private SearchResponse<Map> executeQuery(
-      Query filter,
-      String dateSortField,
-      String idxName,
-      Integer limit,
-      int defaultSize,
-      SortOrder sortOrder) {
-    return executeQuery(null, filter, dateSortField, idxName, limit, defaultSize, sortOrder);
+  /**
+   * Translates search results into an iCal feed.
+   */
+  private void writeICal(FeedQuery<EventDoc> query, List<Hit<EventDoc>> hits, OutputStream out)
+      throws IOException {
+    ICalendar iCal = new ICalendar();
+    hits.forEach(
+        searchHit -> {
+          try {
+            iCal.addEvent(
+                ConversionUtil.toVEvent(
+                    searchHit,
+                    query.locale(),
+                    configuration.getGbifPortalUrl() + query.idxName()));
+          } catch (DateTimeParseException ex) {
+            LOG.warn(
+                "Skipping event {} in calendar feed due to unparsable date: {}",
+                searchHit.id(),
+                ex.getMessage());
+          }
+        });
+    Biweekly.write(iCal).go(out);
+  }
+
+  /**
+   * Executes the query of a feed, the documents versions are requested to build ETags.
+   * Only the fields rendered by the format, in the locale of the feed, are fetched.
+   * Concurrent requests of the same feed share the search in flight, the hits are read-only.
+   */
+  private <T extends FeedDocument> CompletableFuture<List<Hit<T>>> executeQuery(
+      FeedQuery<T> query, FeedFormat format) {
+    return executeSearch(query, format).thenApply(EventsResource::<T>hits);
   }
 
-  private SearchResponse<Map> executeQuery(
-      String query,
+  private <T extends FeedDocument> CompletableFuture<Search> executeSearch(
+      FeedQuery<T> query, FeedFormat format) {
+    return searches.execute(query.cacheKey(format.key), () -> search(query, format));
+  }
+
+  /**
+   * Hits of a shared search, the key of the search identifies the index and therefore the document
+   * class of the hits.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T extends FeedDocument> List<Hit<T>> hits(Search search) {
+    return (List<Hit<T>>) search.hits();
+  }
+
+  /**
+   * Searches the documents of a feed, the feed cache generation is read before searching.
+   */
+  private <T extends FeedDocument> CompletableFuture<Search> search(
+      FeedQuery<T> query, FeedFormat format) {
+    long generation = feedCache.generation();
+    BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder()
+        .filter(SEARCHABLE)
+        .must(MatchAllQuery.of(m -> m));
+    Optional.ofNullable(query.filter()).ifPresent(boolQueryBuilder::filter);
+
+    return esClient.search(
+        SearchRequest.of(s -> s
+            .index(query.idxName())
+            .query(boolQueryBuilder.build())
+            .sort(sort -> sort
+                .field(f -> f.field(query.dateSortField()).order(query.sortOrder())))
+            .seqNoPrimaryTerm(true)
+            .source(src -> src.filter(f -> f.includes(format.sourceIncludes(query.locale()))))
+            .size(query.size())),
+        query.documentClass())
+        .thenApply(response -> new Search(response.hits().hits(), generation));
+  }
+
+  /**
+   * Serializes the documents of a feed into an output stream.
+   */
+  @FunctionalInterface
+  private interface FeedRenderer<T extends FeedDocument> {
+    void render(FeedQuery<T> query, List<Hit<T>> hits, OutputStream out) throws IOException;
+  }
+
+  /**
+   * Supported feed formats.
+   */
+  private enum FeedFormat {
+    RSS(
+        "rss",
+        new MediaType(MediaType.APPLICATION_ATOM_XML, StandardCharsets.UTF_8),
+        List.of(CREATED_AT_FIELD, UPDATED_AT_FIELD)),
+    ICAL(
+        "ics",
+        new MediaType(MediaType.valueOf(MEDIA_TYPE_CAL), StandardCharsets.UTF_8),
+        List.of(
+            "id",
+            CREATED_AT_FIELD,
+            UPDATED_AT_FIELD,
+            START_FIELD,
+            "end",
+            "coordinates",
+            "primaryLink"));
+
+    /** Localized fields rendered by all the formats */
+    private static final List<String> LOCALIZED_FIELDS = List.of("title", "body");
+
+    /** Format in the feed cache keys */
+    private final String key;
+
+    private final MediaType contentType;
+
+    /** Non-localized fields read by the format, updatedAt and createdAt are used in ETags */
+    private final List<String> fields;
+
+    FeedFormat(String key, MediaType contentType, List<String> fields) {
+      this.key = key;
+      this.contentType = contentType;
+      this.fields = fields;
+    }
+
+    /**
+     * Source fields fetched from ElasticSearch, localized fields only in the requested locale.
+     */
+    List<String> sourceIncludes(String locale) {
+      List<String> includes = new ArrayList<>(fields);
+      LOCALIZED_FIELDS.forEach(field -> includes.add(field + '.' + locale));
+      return includes;
+    }
+  }
+
+  /**
+   * Search of the documents of a feed.
+   *
+   * @param documentClass type of the documents
+   * @param filter        optional filter of the documents
+   * @param filterKey     identifies the filter in the feed cache
+   * @param dateSortField date field used to sort the documents
+   * @param idxName       index to search
+   * @param locale        locale of the localized fields
+   * @param size          maximum number of documents
+   * @param sortOrder     order of the documents
+   */
+  private record FeedQuery<T extends FeedDocument>(
+      Class<T> documentClass,
       Query filter,
+      String filterKey,
       String dateSortField,
       String idxName,
-      Integer limit,
-      int defaultSize,
+      String locale,
+      int size,
       SortOrder sortOrder) {
-    try {
-      BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder()
-          .filter(SEARCHABLE);
 
-      if (query == null) {
-        boolQueryBuilder.must(MatchAllQuery.of(m -> m));
-      } else {
-        boolQueryBuilder.must(Query.of(q -> q.wrapper(w -> w.query(query))));
-      }
-      Optional.ofNullable(filter).ifPresent(boolQueryBuilder::filter);
-
-      return esClient.search(
-          SearchRequest.of(s -> s
-              .index(idxName)
-              .query(boolQueryBuilder.build())
-              .sort(sort -> sort.field(f -> f.field(dateSortField).order(sortOrder)))
-              .size(Optional.ofNullable(limit).orElse(defaultSize))),
-          Map.class);
-    } catch (IOException ex) {
-      throw new RuntimeException(ex);
+    FeedCache.Key cacheKey(String format) {
+      return new FeedCache.Key(format, idxName, filterKey, locale, size, sortOrder);
     }
   }
 }
@@ -15,7 +15,16 @@ package org.gbif.content.resource;
 
 import org.gbif.content.config.ContentWsConfiguration;
 import org.gbif.content.config.ContentWsProperties;
-import org.gbif.content.service.JenkinsJobClient;
+import org.gbif.content.config.SynchronizationProperties;
+import org.gbif.content.service.ContentCache;
+import org.gbif.content.service.ContentLocations;
+import org.gbif.content.service.CrawlTrigger;
+import org.gbif.content.service.ContentTypeRegistry;
+import org.gbif.content.service.EntryIndexer;
+import org.gbif.content.service.FeedCache;
+import org.gbif.content.service.ProgrammeCache;
+import org.gbif.content.service.PreviewCache;
+import org.gbif.content.service.Vocabularies;
 import org.gbif.content.service.WebHookRequest;
 import org.gbif.content.service.WebHookRequest.Topic;
 import org.gbif.content.utils.Paths;
@@ -23,7 +32,11 @@ import org.gbif.content.utils.Paths;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
+import java.util.EnumSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -33,6 +46,8 @@ import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch.core.DeleteResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -52,19 +67,60 @@ public class SyncResource {
       "application/vnd.contentful.management.v1+json";
   // Used to map indices names
   private static final Pattern REPLACEMENTS = Pattern.compile(":\\s+|\\s+");
+  private static final Set<Topic> PUBLICATION_TOPICS =
+      EnumSet.of(Topic.EntryPublish, Topic.EntryUnPublish, Topic.EntryDelete);
+  private static final Set<Topic> CONTENT_TYPE_TOPICS =
+      EnumSet.of(Topic.ContentTypePublish, Topic.ContentTypeUnPublish, Topic.ContentTypeDelete);
 
-  private final JenkinsJobClient jenkinsJobClient;
+  private final CrawlTrigger crawlTrigger;
   private final Map<String, ElasticsearchClient> esClients;
+  private final FeedCache feedCache;
+  private final ProgrammeCache programmeCache;
+  private final ContentLocations contentLocations;
+  private final ContentCache contentCache;
+  private final PreviewCache previewCache;
+  private final ContentTypeRegistry contentTypeRegistry;
+  private final Vocabularies vocabularies;
+  private final EntryIndexer entryIndexer;
+  private final Executor taskExecutor;
+  private final boolean indexPublishedEntries;
+  private final String programmeIdx;
 
   /**
    * Full constructor: requires the configuration object and an ElasticSearch client.
    */
   public SyncResource(
-      JenkinsJobClient jenkinsJobClient,
+      CrawlTrigger crawlTrigger,
       ElasticsearchClient searchIndex,
-      ContentWsProperties properties) {
-    this.jenkinsJobClient = jenkinsJobClient;
+      ContentWsProperties properties,
+      FeedCache feedCache,
+      ProgrammeCache programmeCache,
+      ContentLocations contentLocations,
+      ContentCache contentCache,
+      PreviewCache previewCache,
+      ContentTypeRegistry contentTypeRegistry,
+      Vocabularies vocabularies,
+      EntryIndexer entryIndexer,
+      @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+          Executor taskExecutor) {
+    this.crawlTrigger = crawlTrigger;
     this.esClients = buildEsClients(properties, searchIndex);
+    this.feedCache = feedCache;
+    this.programmeCache = programmeCache;
+    this.contentLocations = contentLocations;
+    this.contentCache = contentCache;
+    this.previewCache = previewCache;
+    this.contentTypeRegistry = contentTypeRegistry;
+    this.vocabularies = vocabularies;
+    this.entryIndexer = entryIndexer;
+    this.taskExecutor = taskExecutor;
+    this.indexPublishedEntries =
+        Optional.ofNullable(properties.getSynchronization())
+            .map(SynchronizationProperties::isIndexPublishedEntries)
+            .orElse(false);
+    this.programmeIdx = properties.getEsProgrammeIndex();
+    // crawled entries are evicted once the crawl starts rewriting the indices
+    crawlTrigger.onCrawl(change -> evictIndexed(change.getTopic(), change));
   }
 
   /**
@@ -101,12 +157,27 @@ public class SyncResource {
         .map(
             topic -> {
               LOG.info("Action received {}", topic);
+              // Published entries are evicted from the caches once they are indexed
+              if (Topic.EntryPublish == topic && isIndexable(webHookRequest)) {
+                return indexEntry(webHookRequest);
+              }
+              invalidatePreviews(webHookRequest);
+              if (CONTENT_TYPE_TOPICS.contains(topic)) {
+                refreshContentTypes();
+              } else if (PUBLICATION_TOPICS.contains(topic)
+                  && vocabularies.isVocabulary(webHookRequest.getContentTypeId())) {
+                vocabularies.reload();
+              }
+              // Saved drafts only change previews
+              if (Topic.EntryAutoSave == topic || Topic.EntrySave == topic) {
+                return ResponseEntity.ok().build();
+              }
               // Only deletions are handled
               if (Topic.EntryUnPublish == topic || Topic.EntryDelete == topic) {
                 return deleteDocument(webHookRequest);
               }
               // Rest of recognised topics/commands trigger a full crawl
-              return runFullCrawl(webHookRequest.getEnv());
+              return runFullCrawl(webHookRequest);
             })
         .orElseGet(
             () -> {
@@ -118,7 +189,87 @@ public class SyncResource {
   }
 
   /**
-   * Deletes a document from ElasticSearch.
+   * Evicts the previews on any change of an entry or an asset. The data read from the index is
+   * evicted once the index changes.
+   */
+  private void invalidatePreviews(WebHookRequest webHookRequest) {
+    previewCache.invalidateAll(webHookRequest.getId(), webHookRequest.getRevision());
+  }
+
+  /**
+   * Evicts the cached data read from the index of a published, unpublished or deleted entry, it
+   * must run once the index has changed. Published entries are located in the index of their
+   * content type.
+   */
+  private void evictIndexed(Topic topic, WebHookRequest webHookRequest) {
+    if (PUBLICATION_TOPICS.contains(topic)) {
+      String idxName = getEsIdxName(webHookRequest.getContentTypeId());
+      feedCache.invalidate(idxName);
+      contentCache.invalidate(webHookRequest.getId());
+      if (programmeIdx.equals(idxName)) {
+        programmeCache.refresh();
+      }
+      if (Topic.EntryPublish == topic) {
+        contentLocations.put(webHookRequest.getId(), idxName);
+      } else {
+        contentLocations.invalidate(webHookRequest.getId());
+      }
+    }
+  }
+
+  /**
+   * Reloads the content types after a schema change, the loaded ones are kept on failure.
+   * The vocabularies are rebuilt from the new content types in the background.
+   */
+  private void refreshContentTypes() {
+    try {
+      contentTypeRegistry.refresh();
+    } catch (RuntimeException ex) {
+      LOG.error("Error reloading the content types", ex);
+    }
+  }
+
+  /**
+   * Whether a published entry can be indexed without a full crawl.
+   */
+  private boolean isIndexable(WebHookRequest webHookRequest) {
+    return indexPublishedEntries
+        && esClients.containsKey(webHookRequest.getEnv())
+        && entryIndexer.isIndexable(webHookRequest.getContentTypeId());
+  }
+
+  /**
+   * Indexes a published entry in the background and then evicts it from the caches, a full crawl
+   * is requested if the entry can not be indexed. The webhook is answered before the Contentful
+   * and ElasticSearch calls, which can outlast its timeout and cause a redelivery.
+   */
+  private ResponseEntity<?> indexEntry(WebHookRequest webHookRequest) {
+    try {
+      taskExecutor.execute(() -> index(webHookRequest));
+      return ResponseEntity.accepted().build();
+    } catch (RejectedExecutionException ex) {
+      LOG.warn("Entry {} not indexed, running a full crawl", webHookRequest.getId(), ex);
+      return runFullCrawl(webHookRequest);
+    }
+  }
+
+  private void index(WebHookRequest webHookRequest) {
+    try {
+      entryIndexer.index(
+          esClients.get(webHookRequest.getEnv()),
+          getEsIdxName(webHookRequest.getContentTypeId()),
+          webHookRequest.getId());
+    } catch (Exception ex) {
+      LOG.error("Entry {} not indexed, running a full crawl", webHookRequest.getId(), ex);
+      runFullCrawl(webHookRequest);
+    } finally {
+      invalidatePreviews(webHookRequest);
+      evictIndexed(Topic.EntryPublish, webHookRequest);
+    }
+  }
+
+  /**
+   * Deletes a document from ElasticSearch and then evicts it from the caches.
    */
   private ResponseEntity<?> deleteDocument(WebHookRequest webHookRequest) {
     try {
@@ -137,6 +288,8 @@ public class SyncResource {
       }
     } catch (IOException ex) {
       throw new RuntimeException(ex);
+    } finally {
+      evictIndexed(webHookRequest.getTopic(), webHookRequest);
     }
   }
 
@@ -148,9 +301,10 @@ public class SyncResource {
   }
 
   /**
-   * Sends a full crawl request to the Jenkins sync job.
+   * Requests a full crawl, the Jenkins sync job runs once the burst of changes is over.
    */
-  private ResponseEntity<?> runFullCrawl(String environment) {
-    return jenkinsJobClient.execute(environment);
+  private ResponseEntity<?> runFullCrawl(WebHookRequest webHookRequest) {
+    crawlTrigger.request(webHookRequest);
+    return ResponseEntity.accepted().build();
   }
 }
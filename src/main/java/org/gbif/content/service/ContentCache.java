@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.config.CacheProperties;
+import org.gbif.content.config.ContentWsProperties;
+import org.gbif.content.utils.ResourceVersion;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Cache of serialized content documents, so popular documents are served without reading them
+ * from ElasticSearch nor serializing them again.
+ * Entries are evicted by the synchronization webhook and expired after a short time, documents
+ * are re-indexed by the crawler some time after the webhook is received. Documents read before an
+ * eviction are not cached.
+ */
+@Component
+public class ContentCache {
+
+  /**
+   * Serialized document.
+   *
+   * @param json    document serialized as JSON
+   * @param version version of the document
+   */
+  public record Document(byte[] json, ResourceVersion version) {}
+
+  private final Cache<String, Document> cache;
+
+  /** Incremented by each eviction */
+  private final AtomicLong generation = new AtomicLong();
+
+  public ContentCache(ContentWsProperties properties) {
+    CacheProperties cacheProperties = properties.getContentCache();
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(cacheProperties.getMaxSize())
+            .weigher((String id, Document document) -> document.json().length)
+            .expireAfterWrite(cacheProperties.getExpireAfterWrite())
+            .build();
+  }
+
+  /**
+   * Gets a document if it is cached.
+   */
+  public Optional<Document> getIfPresent(String id) {
+    return Optional.ofNullable(cache.getIfPresent(id));
+  }
+
+  /**
+   * Current generation, read before reading a document from ElasticSearch to cache it afterwards.
+   */
+  public long generation() {
+    return generation.get();
+  }
+
+  /**
+   * Caches a document, unless documents were evicted since the given generation, i.e.: it may
+   * have been read before it was replaced or deleted.
+   */
+  public void put(String id, Document document, long readGeneration) {
+    cache.put(id, document);
+    if (generation.get() != readGeneration) {
+      cache.asMap().remove(id, document);
+    }
+  }
+
+  /**
+   * Evicts a document.
+   */
+  public void invalidate(String id) {
+    generation.incrementAndGet();
+    cache.invalidate(id);
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.config.CacheProperties;
+import org.gbif.content.config.ContentWsProperties;
+
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Index in which each content document is stored, so documents are read from a single index
+ * instead of searching all the indices of the content alias.
+ * Locations are learnt from search results and webhooks, they are hints: readers fall back to a
+ * search when a document is not found in its recorded index, e.g. after a full crawl.
+ */
+@Component
+public class ContentLocations {
+
+  private final Cache<String, String> indices;
+
+  public ContentLocations(ContentWsProperties properties) {
+    CacheProperties cacheProperties = properties.getContentLocations();
+    this.indices =
+        CacheBuilder.newBuilder()
+            .maximumWeight(cacheProperties.getMaxSize())
+            .weigher((String id, String index) -> id.length() + index.length())
+            .expireAfterWrite(cacheProperties.getExpireAfterWrite())
+            .build();
+  }
+
+  /**
+   * Index of a document, if known.
+   */
+  public Optional<String> get(String id) {
+    return Optional.ofNullable(indices.getIfPresent(id));
+  }
+
+  /**
+   * Records the index of a document.
+   */
+  public void put(String id, String index) {
+    indices.put(id, index);
+  }
+
+  /**
+   * Forgets the index of a document.
+   */
+  public void invalidate(String id) {
+    indices.invalidate(id);
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.crawl.conf.ContentCrawlConfiguration;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.stereotype.Component;
+
+import com.contentful.java.cma.model.CMAContentType;
+
+/**
+ * Content types of the Contentful space, shared by the vocabularies and the previews.
+ * The content types are loaded once, at startup when the vocabularies are preloaded or else on
+ * first use, and reloaded when a content type webhook is received. They are read from the local
+ * snapshot when there is one, then reloaded from the management API in the background.
+ */
+@Component
+public class ContentTypeRegistry {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ContentTypeRegistry.class);
+
+  private final ContentfulClient contentfulClient;
+
+  private final ContentTypeSnapshot snapshot;
+
+  private final Executor taskExecutor;
+
+  private final ContentCrawlConfiguration.Contentful configuration;
+
+  private volatile List<CMAContentType> contentTypes;
+
+  private final List<Consumer<List<CMAContentType>>> listeners = new CopyOnWriteArrayList<>();
+
+  public ContentTypeRegistry(
+      ContentfulClient contentfulClient,
+      ContentTypeSnapshot snapshot,
+      @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+          Executor taskExecutor,
+      ContentCrawlConfiguration.Contentful configuration) {
+    this.contentfulClient = contentfulClient;
+    this.snapshot = snapshot;
+    this.taskExecutor = taskExecutor;
+    this.configuration = configuration;
+  }
+
+  /**
+   * Gets all the content types, concurrent first calls wait for a single load.
+   */
+  public List<CMAContentType> getContentTypes() {
+    List<CMAContentType> loaded = contentTypes;
+    if (loaded == null) {
+      synchronized (this) {
+        if (contentTypes == null) {
+          load();
+        }
+        loaded = contentTypes;
+      }
+    }
+    return loaded;
+  }
+
+  /**
+   * Registers a listener of the content types loaded from Contentful.
+   */
+  public void onRefresh(Consumer<List<CMAContentType>> listener) {
+    listeners.add(listener);
+  }
+
+  public boolean isLoaded() {
+    return contentTypes != null;
+  }
+
+  /**
+   * Id of the content type of projects.
+   */
+  public String getProjectContentTypeId() {
+    return getContentTypes().stream()
+        .filter(
+            contentType ->
+                contentType.getName().equalsIgnoreCase(configuration.getProjectContentType()))
+        .findFirst()
+        .map(CMAContentType::getId)
+        .orElseThrow(() -> new RuntimeException("Project Content Type not Found"));
+  }
+
+  /**
+   * Loads the content types of the snapshot and reloads them from Contentful in the background,
+   * without a snapshot they are loaded from Contentful directly.
+   */
+  private void load() {
+    Optional<List<CMAContentType>> stored = snapshot.read();
+    if (stored.isPresent()) {
+      contentTypes = stored.get();
+      taskExecutor.execute(
+          () -> {
+            try {
+              refresh();
+            } catch (RuntimeException ex) {
+              LOG.warn("Content types not reloaded, using the snapshot", ex);
+            }
+          });
+    } else {
+      refresh();
+    }
+  }
+
+  /**
+   * Reloads the content types and stores them in the snapshot, the loaded ones are kept if
+   * Contentful fails. The snapshot is written without holding the lock of the registry.
+   */
+  public void refresh() {
+    List<CMAContentType> refreshed;
+    synchronized (this) {
+      refreshed = List.copyOf(contentfulClient.fetchContentTypes());
+      contentTypes = refreshed;
+      LOG.info("{} content types loaded", refreshed.size());
+      listeners.forEach(listener -> listener.accept(refreshed));
+    }
+    snapshot.write(refreshed);
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.config.ContentWsProperties;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.contentful.java.cma.model.CMAContentType;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Local copy of the Contentful content types, the vocabularies are built from them.
+ * The content types are stored as gzipped JSON in content.contentTypesSnapshot, the snapshot is
+ * disabled if the path is not set.
+ */
+@Component
+public class ContentTypeSnapshot {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ContentTypeSnapshot.class);
+
+  private static final Type CONTENT_TYPES = new TypeToken<List<CMAContentType>>() {}.getType();
+
+  private final Gson gson = new Gson();
+
+  private final Optional<Path> path;
+
+  public ContentTypeSnapshot(ContentWsProperties properties) {
+    this.path = Optional.ofNullable(properties.getContentTypesSnapshot()).map(Path::of);
+  }
+
+  /**
+   * Reads the content types of the snapshot, empty if there is none or it can not be read.
+   */
+  public Optional<List<CMAContentType>> read() {
+    return path.filter(Files::exists).flatMap(this::read);
+  }
+
+  private Optional<List<CMAContentType>> read(Path snapshot) {
+    try (Reader reader =
+        new InputStreamReader(
+            new GZIPInputStream(Files.newInputStream(snapshot)), StandardCharsets.UTF_8)) {
+      List<CMAContentType> contentTypes = gson.fromJson(reader, CONTENT_TYPES);
+      LOG.info("{} content types read from {}", contentTypes.size(), snapshot);
+      return Optional.of(List.copyOf(contentTypes));
+    } catch (IOException | RuntimeException ex) {
+      LOG.warn("Content types snapshot {} not read", snapshot, ex);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Replaces the snapshot, readers never see a partially written file.
+   */
+  public synchronized void write(List<CMAContentType> contentTypes) {
+    path.ifPresent(snapshot -> write(snapshot, contentTypes));
+  }
+
+  private void write(Path snapshot, List<CMAContentType> contentTypes) {
+    try {
+      Path directory = snapshot.toAbsolutePath().getParent();
+      Files.createDirectories(directory);
+      Path tmp = Files.createTempFile(directory, snapshot.getFileName().toString(), ".tmp");
+      try {
+        try (Writer writer =
+            new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(tmp)), StandardCharsets.UTF_8)) {
+          gson.toJson(contentTypes, CONTENT_TYPES, writer);
+        }
+        Files.move(
+            tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tmp);
+      }
+    } catch (IOException ex) {
+      LOG.warn("Content types snapshot {} not written", snapshot, ex);
+    }
+  }
+}
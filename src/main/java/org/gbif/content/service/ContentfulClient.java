@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.crawl.conf.ContentCrawlConfiguration;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.contentful.java.cda.CDAClient;
+import com.contentful.java.cda.CDAEntry;
+import com.contentful.java.cma.CMAClient;
+import com.contentful.java.cma.model.CMAContentType;
+
+/**
+ * Calls to the Contentful APIs, rate limited and retried by {@link ContentfulRateLimits}.
+ */
+@Component
+public class ContentfulClient {
+
+  private static final int LEVELS = 2;
+
+  private static final String LOCALE_PARAM = "locale";
+
+  private static final String ALL = "*";
+
+  private final CDAClient cdaClient;
+
+  private final CDAClient cdaPreviewClient;
+
+  private final CMAClient cmaClient;
+
+  private final ContentCrawlConfiguration.Contentful configuration;
+
+  private final ContentfulRateLimits rateLimits;
+
+  public ContentfulClient(
+      @Qualifier("cdaClient") CDAClient cdaClient,
+      @Qualifier("cadPreviewClient") CDAClient cdaPreviewClient,
+      CMAClient cmaClient,
+      ContentCrawlConfiguration.Contentful configuration,
+      ContentfulRateLimits rateLimits) {
+    this.cdaClient = cdaClient;
+    this.cdaPreviewClient = cdaPreviewClient;
+    this.cmaClient = cmaClient;
+    this.configuration = configuration;
+    this.rateLimits = rateLimits;
+  }
+
+  /**
+   * Gets a published entry from the delivery API in all locales, with its links resolved two
+   * levels deep.
+   */
+  public CDAEntry fetchEntry(String id) {
+    return rateLimits.retry(() -> fetch(cdaClient, id));
+  }
+
+  /**
+   * Gets an entry from the preview API in all locales, with its links resolved two levels deep.
+   */
+  public CDAEntry fetchPreviewEntry(String id) {
+    return rateLimits.limit(() -> fetch(cdaPreviewClient, id));
+  }
+
+  private static CDAEntry fetch(CDAClient client, String id) {
+    return client.fetch(CDAEntry.class).include(LEVELS).where(LOCALE_PARAM, ALL).one(id);
+  }
+
+  /**
+   * Gets the content types of the space and environment from the management API.
+   */
+  public List<CMAContentType> fetchContentTypes() {
+    return rateLimits.retry(
+        () ->
+            cmaClient
+                .contentTypes()
+                .fetchAll(configuration.getSpaceId(), configuration.getEnvironmentId())
+                .getItems());
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.config.ContentWsProperties;
+import org.gbif.content.config.ContentfulApiProperties;
+import org.gbif.content.exception.WebApplicationException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Throwables;
+import com.google.common.primitives.Ints;
+
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.micrometer.tagged.TaggedRateLimiterMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Rate limit and retries of the calls to Contentful.
+ * As an interceptor of the delivery and preview clients, it adapts the limit per second to the
+ * X-Contentful-RateLimit-Second-Limit header, within content.contentfulApi.limitForPeriod, and
+ * drains the permissions of the current second when Contentful reports none remaining or
+ * throttles a call. Failed calls are retried with a jittered exponential backoff, throttled calls
+ * wait at least the time of the X-Contentful-RateLimit-Reset header.
+ * The limiter and retry metrics are exported with the resilience4j names.
+ */
+@Component
+public class ContentfulRateLimits implements Interceptor {
+
+  static final String SECOND_LIMIT = "X-Contentful-RateLimit-Second-Limit";
+
+  static final String SECOND_REMAINING = "X-Contentful-RateLimit-Second-Remaining";
+
+  static final String RESET = "X-Contentful-RateLimit-Reset";
+
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  private static final double BACKOFF_MULTIPLIER = 2;
+
+  private static final double BACKOFF_RANDOMIZATION = 0.5;
+
+  private final RateLimiter rateLimiter;
+
+  private final Retry retry;
+
+  private final int maxLimitForPeriod;
+
+  private final long maxBackoff;
+
+  public ContentfulRateLimits(ContentWsProperties properties, MeterRegistry meterRegistry) {
+    ContentfulApiProperties api = properties.getContentfulApi();
+    maxLimitForPeriod = api.getLimitForPeriod();
+    maxBackoff = api.getMaxBackoff().toMillis();
+
+    RateLimiterRegistry rateLimiterRegistry =
+        RateLimiterRegistry.of(
+            RateLimiterConfig.custom()
+                .limitForPeriod(api.getLimitForPeriod())
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(api.getTimeout())
+                .build());
+    rateLimiter = rateLimiterRegistry.rateLimiter("contentfulApi");
+
+    IntervalFunction backoff =
+        IntervalFunction.ofExponentialRandomBackoff(
+            api.getInitialBackoff(),
+            BACKOFF_MULTIPLIER,
+            BACKOFF_RANDOMIZATION,
+            api.getMaxBackoff());
+    RetryRegistry retryRegistry =
+        RetryRegistry.of(
+            RetryConfig.custom()
+                .maxAttempts(api.getMaxAttempts())
+                .retryOnException(ContentfulRateLimits::isRetryable)
+                .intervalBiFunction(
+                    (attempt, result) ->
+                        Math.max(
+                            backoff.apply(attempt),
+                            result.isLeft() ? resetMillis(result.getLeft()) : 0L))
+                .build());
+    retry = retryRegistry.retry("contentfulApiRetry");
+
+    TaggedRateLimiterMetrics.ofRateLimiterRegistry(rateLimiterRegistry).bindTo(meterRegistry);
+    TaggedRetryMetrics.ofRetryRegistry(retryRegistry).bindTo(meterRegistry);
+  }
+
+  /**
+   * Runs a call to the preview API within the rate limit, every attempt takes a permission.
+   */
+  public <T> T limit(Supplier<T> call) {
+    try {
+      return retry.executeSupplier(RateLimiter.decorateSupplier(rateLimiter, call));
+    } catch (RequestNotPermitted ex) {
+      throw new WebApplicationException(
+          "Contentful rate limit exceeded", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+  }
+
+  /**
+   * Runs a call to Contentful retrying the failed attempts.
+   */
+  public <T> T retry(Supplier<T> call) {
+    return retry.executeSupplier(call);
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Response response = chain.proceed(chain.request());
+    header(response, SECOND_LIMIT)
+        .map(limit -> Math.min(limit, maxLimitForPeriod))
+        .filter(limit -> limit > 0)
+        .filter(limit -> limit != rateLimiter.getRateLimiterConfig().getLimitForPeriod())
+        .ifPresent(rateLimiter::changeLimitForPeriod);
+    boolean throttled = response.code() == TOO_MANY_REQUESTS;
+    if (throttled || header(response, SECOND_REMAINING).filter(r -> r <= 0).isPresent()) {
+      rateLimiter.drainPermissions();
+    }
+    if (throttled) {
+      Duration reset = header(response, RESET).map(Duration::ofSeconds).orElse(Duration.ZERO);
+      response.close();
+      throw new ThrottledException(reset);
+    }
+    return response;
+  }
+
+  private static Optional<Integer> header(Response response, String name) {
+    return Optional.ofNullable(response.header(name)).map(Ints::tryParse);
+  }
+
+  /**
+   * Network errors and throttled calls are retried, the exceptions are wrapped by the clients.
+   */
+  private static boolean isRetryable(Throwable throwable) {
+    return Throwables.getCausalChain(throwable).stream()
+        .anyMatch(IOException.class::isInstance);
+  }
+
+  /**
+   * Time until Contentful accepts calls again, bounded by the maximum backoff.
+   */
+  private long resetMillis(Throwable throwable) {
+    return Throwables.getCausalChain(throwable).stream()
+        .filter(ThrottledException.class::isInstance)
+        .map(ThrottledException.class::cast)
+        .findFirst()
+        .map(throttled -> Math.min(throttled.reset.toMillis(), maxBackoff))
+        .orElse(0L);
+  }
+
+  /**
+   * Call rejected by Contentful with a 429 status.
+   */
+  static class ThrottledException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Duration reset;
+
+    ThrottledException(Duration reset) {
+      super("Contentful rate limit exceeded, reset in " + reset);
+      this.reset = reset;
+    }
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.config.SynchronizationProperties;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Collapses the crawls requested for an environment into a single run of the Jenkins job.
+ * A crawl runs once no new change has been requested for content.synchronization.crawlDebounce,
+ * and at most content.synchronization.crawlMaxDelay after the first change requested.
+ * Changes are identified by the id and revision of the modified element, a repeated change does
+ * not delay the crawl. Listeners are notified of the changes collected once the job is started.
+ * The changes of a job that can not be started are crawled later, with an exponential backoff.
+ */
+@Component
+public class CrawlTrigger {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CrawlTrigger.class);
+
+  /** Minimum delay of the first retry of a job not started, in milliseconds */
+  private static final long MIN_RETRY_DELAY = 1_000;
+
+  private final JenkinsJobClient jenkinsJobClient;
+
+  private final ScheduledExecutorService scheduler;
+
+  private final long debounce;
+
+  private final long maxDelay;
+
+  // Crawls waiting to run by environment
+  private final Map<String, PendingCrawl> pendingCrawls = new HashMap<>();
+
+  private final List<Consumer<WebHookRequest>> listeners = new CopyOnWriteArrayList<>();
+
+  @Autowired
+  public CrawlTrigger(
+      JenkinsJobClient jenkinsJobClient, SynchronizationProperties syncProperties) {
+    this(
+        jenkinsJobClient,
+        syncProperties,
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "crawl-trigger");
+              thread.setDaemon(true);
+              return thread;
+            }));
+  }
+
+  CrawlTrigger(
+      JenkinsJobClient jenkinsJobClient,
+      SynchronizationProperties syncProperties,
+      ScheduledExecutorService scheduler) {
+    this.jenkinsJobClient = jenkinsJobClient;
+    this.scheduler = scheduler;
+    this.debounce = syncProperties.getCrawlDebounce().toMillis();
+    this.maxDelay = syncProperties.getCrawlMaxDelay().toMillis();
+  }
+
+  /**
+   * Registers a listener called with each change crawled, once the crawl job is started.
+   */
+  public void onCrawl(Consumer<WebHookRequest> listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Requests a crawl of the environment of a change.
+   *
+   * @return false if the same change was already waiting for the crawl
+   */
+  public boolean request(WebHookRequest change) {
+    String environment = change.getEnv();
+    synchronized (this) {
+      PendingCrawl crawl =
+          pendingCrawls.computeIfAbsent(environment, env -> new PendingCrawl(now()));
+      if (crawl.changes.putIfAbsent(new Change(change.getId(), change.getRevision()), change)
+          != null) {
+        return false;
+      }
+      if (crawl.task != null) {
+        crawl.task.cancel(false);
+      }
+      long delay = Math.max(0, Math.min(debounce, crawl.requested + maxDelay - now()));
+      crawl.task =
+          scheduler.schedule(() -> run(environment, crawl), delay, TimeUnit.MILLISECONDS);
+      return true;
+    }
+  }
+
+  private void run(String environment, PendingCrawl crawl) {
+    synchronized (this) {
+      if (!pendingCrawls.remove(environment, crawl)) {
+        return;
+      }
+    }
+    LOG.info("Running a crawl of {} for {} changes", environment, crawl.changes.size());
+    ResponseEntity<?> response = jenkinsJobClient.execute(environment);
+    if (!response.getStatusCode().is2xxSuccessful()) {
+      LOG.error("Crawl of {} not started, retrying: {}", environment, response);
+      retry(environment, crawl);
+      return;
+    }
+    for (WebHookRequest change : crawl.changes.values()) {
+      listeners.forEach(listener -> notify(listener, change));
+    }
+  }
+
+  /**
+   * Puts back the changes of a crawl not started. They are merged into the crawl requested in the
+   * meantime, if any, otherwise the crawl is retried after a delay that doubles on each failure
+   * up to content.synchronization.crawlMaxDelay.
+   */
+  private synchronized void retry(String environment, PendingCrawl failed) {
+    PendingCrawl pending = pendingCrawls.get(environment);
+    if (pending != null) {
+      failed.changes.forEach(pending.changes::putIfAbsent);
+      return;
+    }
+    PendingCrawl crawl = new PendingCrawl(now());
+    crawl.failures = failed.failures + 1;
+    crawl.changes.putAll(failed.changes);
+    pendingCrawls.put(environment, crawl);
+    long delay =
+        Math.min(
+            maxDelay, Math.max(debounce, MIN_RETRY_DELAY) << Math.min(crawl.failures - 1, 16));
+    crawl.task = scheduler.schedule(() -> run(environment, crawl), delay, TimeUnit.MILLISECONDS);
+  }
+
+  private static void notify(Consumer<WebHookRequest> listener, WebHookRequest change) {
+    try {
+      listener.accept(change);
+    } catch (RuntimeException ex) {
+      LOG.error("Error notifying the crawl of {}", change.getId(), ex);
+    }
+  }
+
+  private static long now() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+  }
+
+  @PreDestroy
+  public void stop() {
+    scheduler.shutdownNow();
+  }
+
+  private record Change(String id, Long revision) {}
+
+  private static class PendingCrawl {
+
+    // Time of the first change, in milliseconds
+    private final long requested;
+
+    private final Map<Change, WebHookRequest> changes = new LinkedHashMap<>();
+
+    private ScheduledFuture<?> task;
+
+    // Consecutive runs of the job not started
+    private int failures;
+
+    private PendingCrawl(long requested) {
+      this.requested = requested;
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.crawl.conf.ContentCrawlConfiguration;
+import org.gbif.content.crawl.contentful.crawl.EsDocBuilder;
+
+import java.io.IOException;
+import java.util.Map;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch.core.GetResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.contentful.java.cda.CDAEntry;
+
+/**
+ * Indexes a published entry without a full crawl: the entry is read from the delivery API and
+ * converted as the crawler does, keeping the tags of the indexed document.
+ * Only entries of the crawled content types are indexed this way, vocabularies and the copies
+ * of an entry embedded in other documents are updated by the full crawl.
+ */
+@Component
+public class EntryIndexer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EntryIndexer.class);
+
+  private final ContentfulClient contentfulClient;
+
+  private final ContentTypeRegistry contentTypeRegistry;
+
+  private final Vocabularies vocabularies;
+
+  private final TagFields tagFields;
+
+  private final ContentCrawlConfiguration.Contentful configuration;
+
+  public EntryIndexer(
+      ContentfulClient contentfulClient,
+      ContentTypeRegistry contentTypeRegistry,
+      Vocabularies vocabularies,
+      TagFields tagFields,
+      ContentCrawlConfiguration.Contentful configuration) {
+    this.contentfulClient = contentfulClient;
+    this.contentTypeRegistry = contentTypeRegistry;
+    this.vocabularies = vocabularies;
+    this.tagFields = tagFields;
+    this.configuration = configuration;
+  }
+
+  /**
+   * Whether the entries of a content type can be indexed one by one.
+   */
+  public boolean isIndexable(String contentTypeId) {
+    return !vocabularies.isVocabulary(contentTypeId)
+        && contentTypeRegistry.getContentTypes().stream()
+            .anyMatch(
+                contentType ->
+                    contentType.getId().equals(contentTypeId)
+                        && configuration.getContentTypes().contains(contentType.getName()));
+  }
+
+  /**
+   * Indexes an entry, the document is visible to searches when this method returns.
+   */
+  public void index(ElasticsearchClient esClient, String index, String id) throws IOException {
+    CDAEntry entry = contentfulClient.fetchEntry(id);
+    Map<String, Object> esDoc =
+        new EsDocBuilder(
+                entry, vocabularies.get(), contentTypeRegistry.getProjectContentTypeId(), o -> {})
+            .toEsDoc();
+    GetResponse<Map> indexed =
+        esClient.get(g -> g.index(index).id(id).sourceIncludes(tagFields.names()), Map.class);
+    if (indexed.found() && indexed.source() != null) {
+      esDoc.putAll(tagFields.of(indexed.source()));
+    }
+    esClient.index(i -> i.index(index).id(id).document(esDoc).refresh(Refresh.WaitFor));
+    LOG.info("Entry {} indexed in {}", id, index);
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.config.CacheProperties;
+import org.gbif.content.config.ContentWsProperties;
+import org.gbif.content.utils.ContentEncoding;
+import org.gbif.content.utils.ResourceVersion;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Cache of serialized RSS and iCal feeds, stored together with their compressed encodings.
+ * Feeds only change when Contentful publishes, so entries are evicted per index once the
+ * synchronization has changed it and, as a safety net, expired after a fixed time. Feeds rendered
+ * from a search started before an eviction are not cached.
+ */
+@Component
+public class FeedCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FeedCache.class);
+
+  /**
+   * Identifies a rendered feed.
+   *
+   * @param format    output format of the feed, i.e.: rss, ics
+   * @param index     ElasticSearch index the feed is read from
+   * @param filter    textual representation of the filter applied to the index, empty if none
+   * @param locale    locale used to render localized fields
+   * @param limit     maximum number of elements in the feed
+   * @param sortOrder sort order of the elements
+   */
+  public record Key(
+      String format,
+      String index,
+      String filter,
+      String locale,
+      int limit,
+      SortOrder sortOrder) {}
+
+  /**
+   * Rendered feed.
+   *
+   * @param body          serialized feed
+   * @param encodedBodies compressed serialized feed by encoding, only if smaller than the body
+   * @param version       version of the documents in the feed
+   */
+  public record Feed(
+      byte[] body, Map<ContentEncoding, byte[]> encodedBodies, ResourceVersion version) {
+
+    /**
+     * Rendered feed compressed in all the supported encodings.
+     */
+    public Feed(byte[] body, ResourceVersion version) {
+      this(body, encode(body), version);
+    }
+
+    private static Map<ContentEncoding, byte[]> encode(byte[] body) {
+      Map<ContentEncoding, byte[]> encodedBodies = new EnumMap<>(ContentEncoding.class);
+      for (ContentEncoding encoding : ContentEncoding.values()) {
+        byte[] encodedBody = encoding.encode(body);
+        if (encodedBody.length < body.length) {
+          encodedBodies.put(encoding, encodedBody);
+        }
+      }
+      return Collections.unmodifiableMap(encodedBodies);
+    }
+
+    /**
+     * Size of the feed and its encodings.
+     */
+    int weight() {
+      return body.length + encodedBodies.values().stream().mapToInt(b -> b.length).sum();
+    }
+  }
+
+  private final Cache<Key, Feed> cache;
+
+  /** Incremented by each eviction */
+  private final AtomicLong generation = new AtomicLong();
+
+  public FeedCache(ContentWsProperties properties) {
+    CacheProperties cacheProperties = properties.getFeedCache();
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(cacheProperties.getMaxSize())
+            .weigher((Key key, Feed feed) -> feed.weight())
+            .expireAfterWrite(cacheProperties.getExpireAfterWrite())
+            .build();
+  }
+
+  /**
+   * Gets a feed if it is cached.
+   */
+  public Optional<Feed> getIfPresent(Key key) {
+    return Optional.ofNullable(cache.getIfPresent(key));
+  }
+
+  /**
+   * Current generation, read before searching the documents of a feed to cache it afterwards.
+   */
+  public long generation() {
+    return generation.get();
+  }
+
+  /**
+   * Gets a cached feed or renders it using the loader.
+   * Concurrent requests of the same feed wait for a single rendering. The feed is not kept if
+   * feeds were evicted since the given generation, i.e.: it may have been rendered from documents
+   * replaced in the meantime.
+   */
+  public Feed get(Key key, long searchedGeneration, Supplier<Feed> loader) {
+    Feed feed;
+    try {
+      feed = cache.get(key, loader::get);
+    } catch (ExecutionException | UncheckedExecutionException | ExecutionError ex) {
+      Throwables.throwIfUnchecked(ex.getCause());
+      throw new IllegalStateException(ex.getCause());
+    }
+    if (generation.get() != searchedGeneration) {
+      cache.asMap().remove(key, feed);
+    }
+    return feed;
+  }
+
+  /**
+   * Evicts all the feeds read from an index.
+   */
+  public void invalidate(String index) {
+    generation.incrementAndGet();
+    if (cache.asMap().keySet().removeIf(key -> key.index().equals(index))) {
+      LOG.info("Feeds of index {} evicted", index);
+    }
+  }
+}
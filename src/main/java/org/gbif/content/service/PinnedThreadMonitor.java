@@ -0,0 +1,135 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.config.ContentWsProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Reports virtual threads pinned to their carrier thread, i.e.: blocked inside a synchronized
+ * block or a native call, while virtual threads are enabled (spring.threads.virtual.enabled).
+ * Pinned periods longer than content.pinnedThreadThreshold are read from the JFR
+ * jdk.VirtualThreadPinned event and recorded in the content.threads.virtual.pinned timer, tagged
+ * with the class of the first frame outside the JDK. The stack trace is logged the first time a
+ * class pins a thread.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class PinnedThreadMonitor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+  private static final String METRIC = "content.threads.virtual.pinned";
+
+  private static final List<String> JDK_PACKAGES = List.of("java.", "javax.", "jdk.", "sun.");
+
+  private final MeterRegistry meterRegistry;
+
+  private final Duration threshold;
+
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+  private RecordingStream recordingStream;
+
+  public PinnedThreadMonitor(MeterRegistry meterRegistry, ContentWsProperties properties) {
+    this.meterRegistry = meterRegistry;
+    this.threshold = properties.getPinnedThreadThreshold();
+  }
+
+  @PostConstruct
+  public void start() {
+    recordingStream = new RecordingStream();
+    recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+    recordingStream.startAsync();
+    LOG.info("Monitoring virtual threads pinned longer than {}", threshold);
+  }
+
+  @PreDestroy
+  public void stop() {
+    Optional.ofNullable(recordingStream).ifPresent(RecordingStream::close);
+  }
+
+  private void onPinned(RecordedEvent event) {
+    String source = source(event);
+    Timer timer = timers.get(source);
+    if (timer == null) {
+      timer =
+          timers.computeIfAbsent(
+              source,
+              key ->
+                  Timer.builder(METRIC)
+                      .description("Virtual threads pinned to their carrier thread")
+                      .tag("class", key)
+                      .register(meterRegistry));
+      LOG.warn(
+          "Virtual thread pinned for {} by {}:\n{}", event.getDuration(), source, stack(event));
+    }
+    timer.record(event.getDuration());
+  }
+
+  /**
+   * Class of the first frame outside the JDK.
+   */
+  private static String source(RecordedEvent event) {
+    if (event.getStackTrace() == null) {
+      return "unknown";
+    }
+    return event.getStackTrace().getFrames().stream()
+        .filter(RecordedFrame::isJavaFrame)
+        .map(frame -> frame.getMethod().getType().getName())
+        .filter(type -> JDK_PACKAGES.stream().noneMatch(type::startsWith))
+        .findFirst()
+        .orElse("jdk");
+  }
+
+  private static String stack(RecordedEvent event) {
+    if (event.getStackTrace() == null) {
+      return "";
+    }
+    StringBuilder stack = new StringBuilder();
+    for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+      stack
+          .append("\tat ")
+          .append(frame.getMethod().getType().getName())
+          .append('.')
+          .append(frame.getMethod().getName())
+          .append(':')
+          .append(frame.getLineNumber())
+          .append('\n');
+    }
+    return stack.toString();
+  }
+}
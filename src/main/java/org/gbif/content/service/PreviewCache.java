@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.config.CacheProperties;
+import org.gbif.content.config.ContentWsProperties;
+import org.gbif.content.utils.ResourceVersion;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Cache of serialized content previews, so editors re-opening a preview of an unchanged draft are
+ * answered without calling Contentful.
+ * Previews include linked entries and assets, so any change notified by the synchronization
+ * webhook evicts all of them. Previews built while an eviction happens are not cached.
+ */
+@Component
+public class PreviewCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PreviewCache.class);
+
+  /**
+   * Serialized preview.
+   *
+   * @param json    preview serialized as JSON
+   * @param version version of the preview, derived from its content
+   */
+  public record Preview(byte[] json, ResourceVersion version) {}
+
+  private final Cache<String, Preview> cache;
+
+  /** Incremented by each eviction */
+  private final AtomicLong generation = new AtomicLong();
+
+  public PreviewCache(ContentWsProperties properties) {
+    CacheProperties cacheProperties = properties.getPreviewCache();
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(cacheProperties.getMaxSize())
+            .weigher((String id, Preview preview) -> preview.json().length)
+            .expireAfterWrite(cacheProperties.getExpireAfterWrite())
+            .build();
+  }
+
+  /**
+   * Gets a preview if it is cached.
+   */
+  public Optional<Preview> getIfPresent(String id) {
+    return Optional.ofNullable(cache.getIfPresent(id));
+  }
+
+  /**
+   * Current generation, read before building a preview to cache it afterwards.
+   */
+  public long generation() {
+    return generation.get();
+  }
+
+  /**
+   * Caches a preview unless the previews were evicted since the given generation.
+   */
+  public void put(String id, Preview preview, long builtGeneration) {
+    cache.put(id, preview);
+    if (generation.get() != builtGeneration) {
+      cache.invalidate(id);
+    }
+  }
+
+  /**
+   * Evicts all the previews after a change of an entry or an asset.
+   */
+  public void invalidateAll(String changedId, Long revision) {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+    LOG.debug("Previews evicted by {} revision {}", changedId, revision);
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.config.ContentWsProperties;
+import org.gbif.content.model.ProgrammeDoc;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * In-memory map of programme acronyms to programme ids.
+ * The map is loaded at startup and refreshed periodically or once a changed programme is indexed,
+ * acronyms not found in ElasticSearch are remembered for a short time to avoid repeating the
+ * lookup.
+ */
+@Component
+public class ProgrammeCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ProgrammeCache.class);
+
+  private static final String ACRONYM_FIELD = "acronym";
+
+  private static final Query SEARCHABLE =
+      Query.of(q -> q.term(t -> t.field("searchable").value(true)));
+
+  /**
+   * Upper bound of the number of programmes loaded.
+   */
+  private static final int MAX_PROGRAMMES = 1_000;
+
+  private static final int MAX_UNKNOWN_ACRONYMS = 1_000;
+
+  private static final Duration UNKNOWN_ACRONYM_TTL = Duration.ofMinutes(1);
+
+  private final ElasticsearchClient esClient;
+
+  private final String programmeIndex;
+
+  private volatile Map<String, String> idsByAcronym = Map.of();
+
+  private final Cache<String, Boolean> unknownAcronyms =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAX_UNKNOWN_ACRONYMS)
+          .expireAfterWrite(UNKNOWN_ACRONYM_TTL)
+          .build();
+
+  public ProgrammeCache(ElasticsearchClient esClient, ContentWsProperties properties) {
+    this.esClient = esClient;
+    this.programmeIndex = properties.getEsProgrammeIndex();
+  }
+
+  /**
+   * Gets the id of the programme with the given acronym.
+   */
+  public Optional<String> getId(String acronym) {
+    String id = idsByAcronym.get(acronym);
+    if (id != null) {
+      return Optional.of(id);
+    }
+    if (unknownAcronyms.getIfPresent(acronym) != null) {
+      return Optional.empty();
+    }
+    Optional<String> programmeId = lookUp(acronym);
+    programmeId.ifPresentOrElse(
+        foundId -> put(acronym, foundId), () -> unknownAcronyms.put(acronym, Boolean.TRUE));
+    return programmeId;
+  }
+
+  /**
+   * Reloads all the programmes from ElasticSearch.
+   */
+  @Scheduled(fixedDelayString = "${content.programmeCacheRefresh:PT1H}")
+  public void refresh() {
+    try {
+      SearchResponse<ProgrammeDoc> response =
+          esClient.search(
+              s -> s
+                  .index(programmeIndex)
+                  .query(SEARCHABLE)
+                  .source(src -> src.filter(f -> f.includes(ACRONYM_FIELD)))
+                  .size(MAX_PROGRAMMES),
+              ProgrammeDoc.class);
+      Map<String, String> programmes = new HashMap<>();
+      for (Hit<ProgrammeDoc> hit : response.hits().hits()) {
+        Optional.ofNullable(hit.source())
+            .map(ProgrammeDoc::acronym)
+            .ifPresent(acronym -> programmes.put(acronym, hit.id()));
+      }
+      replace(programmes);
+      LOG.info("{} programmes loaded", programmes.size());
+    } catch (Exception ex) {
+      LOG.warn("Error loading programmes, keeping the previous ones", ex);
+    }
+  }
+
+  /**
+   * Finds the programme id by its acronym in ElasticSearch.
+   */
+  private Optional<String> lookUp(String acronym) {
+    try {
+      SearchResponse<ProgrammeDoc> response =
+          esClient.search(
+              s -> s
+                  .index(programmeIndex)
+                  .query(q -> q.bool(b -> b
+                      .filter(SEARCHABLE)
+                      .filter(f -> f.term(t -> t.field(ACRONYM_FIELD).value(acronym)))))
+                  .source(src -> src.fetch(false))
+                  .size(1),
+              ProgrammeDoc.class);
+      return response.hits().hits().stream().map(Hit::id).findFirst();
+    } catch (IOException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  private synchronized void replace(Map<String, String> programmes) {
+    idsByAcronym = Map.copyOf(programmes);
+    unknownAcronyms.invalidateAll();
+  }
+
+  private synchronized void put(String acronym, String id) {
+    Map<String, String> programmes = new HashMap<>(idsByAcronym);
+    programmes.put(acronym, id);
+    idsByAcronym = Map.copyOf(programmes);
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.crawl.conf.ContentCrawlConfiguration;
+import org.gbif.content.crawl.es.ElasticSearchUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Tag fields of the content documents, one per content type. The tags are not in Contentful,
+ * they are kept from the indexed documents.
+ */
+@Component
+public class TagFields {
+
+  private final Set<String> names;
+
+  public TagFields(ContentCrawlConfiguration.Contentful configuration) {
+    this.names =
+        configuration.getContentTypes().stream()
+            .map(contentType -> ElasticSearchUtils.toFieldNameFormat(contentType) + "Tag")
+            .collect(Collectors.toUnmodifiableSet());
+  }
+
+  public List<String> names() {
+    return List.copyOf(names);
+  }
+
+  /**
+   * Gets the tags fields of an es document.
+   */
+  public Map<String, Object> of(Map<String, Object> source) {
+    return source.entrySet().stream()
+        .filter(entry -> names.contains(entry.getKey()))
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+  }
+}
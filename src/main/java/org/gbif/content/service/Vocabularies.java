@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.crawl.conf.ContentCrawlConfiguration;
+import org.gbif.content.crawl.contentful.crawl.VocabularyTerms;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.contentful.java.cma.model.CMAContentType;
+
+/**
+ * Vocabulary terms used to build the previews.
+ * The terms are loaded at startup when contentful.preloadVocabularies is set and rebuilt in the
+ * background whenever the content types are reloaded: after a schema change, a vocabulary entry
+ * change or once content.vocabularyRefresh elapses. Each load builds new terms that replace the
+ * previous ones at once, loaded terms are never modified.
+ */
+@Component
+public class Vocabularies {
+
+  private static final Logger LOG = LoggerFactory.getLogger(Vocabularies.class);
+
+  private final ContentTypeRegistry contentTypeRegistry;
+
+  private final ContentCrawlConfiguration.Contentful configuration;
+
+  private final Executor taskExecutor;
+
+  private final boolean enabled;
+
+  private final AtomicReference<VocabularyTerms> terms =
+      new AtomicReference<>(new VocabularyTerms());
+
+  // Content types of the loaded terms
+  private List<CMAContentType> loadedFrom;
+
+  public Vocabularies(
+      ContentTypeRegistry contentTypeRegistry,
+      ContentCrawlConfiguration.Contentful configuration,
+      @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+          Executor taskExecutor,
+      @Value("${contentful.preloadVocabularies:true}") boolean preLoad) {
+    this.contentTypeRegistry = contentTypeRegistry;
+    this.configuration = configuration;
+    this.taskExecutor = taskExecutor;
+    this.enabled = preLoad;
+    if (enabled) {
+      contentTypeRegistry.onRefresh(
+          contentTypes -> taskExecutor.execute(() -> load(contentTypes)));
+      load(contentTypeRegistry.getContentTypes());
+    }
+  }
+
+  /**
+   * Gets the current terms, they must not be modified.
+   */
+  public VocabularyTerms get() {
+    return terms.get();
+  }
+
+  /**
+   * Whether the content type is one of the vocabularies.
+   */
+  public boolean isVocabulary(String contentTypeId) {
+    return enabled
+        && contentTypeRegistry.getContentTypes().stream()
+            .anyMatch(
+                contentType ->
+                    contentType.getId().equals(contentTypeId)
+                        && configuration.getVocabularies().contains(contentType.getName()));
+  }
+
+  /**
+   * Reloads the content types in the background, e.g.: after a change of a vocabulary entry.
+   * The terms are rebuilt from the content types fetched from Contentful.
+   */
+  public void reload() {
+    if (enabled) {
+      taskExecutor.execute(this::refresh);
+    }
+  }
+
+  /**
+   * Reloads the content types, the terms are rebuilt once they are loaded.
+   */
+  @Scheduled(
+      initialDelayString = "${content.vocabularyRefresh:PT6H}",
+      fixedDelayString = "${content.vocabularyRefresh:PT6H}")
+  public void refresh() {
+    if (enabled) {
+      try {
+        contentTypeRegistry.refresh();
+      } catch (RuntimeException ex) {
+        LOG.warn("Error reloading the content types, keeping the vocabularies", ex);
+      }
+    }
+  }
+
+  /**
+   * Builds the terms of the vocabularies and replaces the current ones.
+   * The terms are not rebuilt again from the same content types.
+   */
+  private synchronized void load(List<CMAContentType> contentTypes) {
+    if (contentTypes == loadedFrom) {
+      return;
+    }
+    try {
+      VocabularyTerms vocabularyTerms = new VocabularyTerms();
+      contentTypes.forEach(
+          contentType -> {
+            if (configuration.getVocabularies().contains(contentType.getName())) {
+              // Keeps the country vocabulary ID for future use
+              if (contentType.getName().equals(configuration.getCountryVocabulary())) {
+                vocabularyTerms.loadCountryVocabulary(contentType);
+              } else {
+                // Loads vocabulary into memory
+                vocabularyTerms.loadVocabulary(contentType);
+              }
+            }
+          });
+      terms.set(vocabularyTerms);
+      loadedFrom = contentTypes;
+      LOG.info("Vocabularies loaded");
+    } catch (RuntimeException ex) {
+      if (loadedFrom == null) {
+        throw ex;
+      }
+      LOG.error("Error loading the vocabularies, keeping the previous ones", ex);
+    }
+  }
+}
@@ -42,9 +42,14 @@ public class WebHookRequest {
     EntryPublish("ContentManagement.Entry.publish"),
     EntryUnPublish("ContentManagement.Entry.unpublish"),
     EntryDelete("ContentManagement.Entry.delete"),
+    EntryAutoSave("ContentManagement.Entry.auto_save"),
+    EntrySave("ContentManagement.Entry.save"),
     AssetPublish("ContentManagement.Asset.publish"),
     AssetUnPublish("ContentManagement.Asset.unpublish"),
-    AssetDelete("ContentManagement.Asset.delete");
+    AssetDelete("ContentManagement.Asset.delete"),
+    ContentTypePublish("ContentManagement.ContentType.publish"),
+    ContentTypeUnPublish("ContentManagement.ContentType.unpublish"),
+    ContentTypeDelete("ContentManagement.ContentType.delete");
 
     private final String value;
 
@@ -66,6 +71,8 @@ public class WebHookRequest {
 
   private String id;
 
+  private Long revision;
+
   private Topic topic;
 
   private String env = "dev'";
@@ -100,6 +107,17 @@ public class WebHookRequest {
     this.id = id;
   }
 
+  /**
+   * Revision of the modified element, its version if it has never been published.
+   */
+  public Long getRevision() {
+    return revision;
+  }
+
+  public void setRevision(Long revision) {
+    this.revision = revision;
+  }
+
   /**
    * Topic/action triggered by the sync action.
    */
@@ -136,6 +154,8 @@ public class WebHookRequest {
    *       }
    *    },
    *    "id": "82531",
+   *    "revision": 3,
+   *    "version": 7,
    *    ....
    * }
    */
@@ -149,6 +169,11 @@ public class WebHookRequest {
       webHookRequest.setType(jsonWebHook.at("/sys/type").asText());
       webHookRequest.setId(jsonWebHook.at("/sys/id").asText());
       webHookRequest.setContentTypeId(jsonWebHook.at("/sys/contentType/sys/id").asText());
+      Optional.of(jsonWebHook.at("/sys/revision"))
+          .filter(JsonNode::canConvertToLong)
+          .or(() -> Optional.of(jsonWebHook.at("/sys/version")).filter(JsonNode::canConvertToLong))
+          .map(JsonNode::asLong)
+          .ifPresent(webHookRequest::setRevision);
       webHookRequest.setEnv(Optional.ofNullable(request.getParameter("env")).orElse("dev"));
       return webHookRequest;
     } catch (IOException ex) {
@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Content codings in which cached bodies are precompressed.
+ * Bodies are compressed once, at the highest level, when they are cached and served according to
+ * the Accept-Encoding of each request.
+ */
+public enum ContentEncoding {
+  GZIP("gzip") {
+    @Override
+    OutputStream encoder(OutputStream out) throws IOException {
+      return new GZIPOutputStream(out) {
+        {
+          def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+      };
+    }
+  };
+
+  private static final String ANY = "*";
+
+  private static final String QUALITY_PARAM = "q=";
+
+  /** Value of the Content-Encoding header */
+  private final String coding;
+
+  ContentEncoding(String coding) {
+    this.coding = coding;
+  }
+
+  public String getCoding() {
+    return coding;
+  }
+
+  abstract OutputStream encoder(OutputStream out) throws IOException;
+
+  /**
+   * Compresses a body.
+   */
+  public byte[] encode(byte[] body) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+    try (OutputStream encoder = encoder(out)) {
+      encoder.write(body);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Selects the supported coding with the highest quality in the Accept-Encoding header, the
+   * declaration order breaks ties. Empty if the client only accepts uncompressed bodies.
+   */
+  public static Optional<ContentEncoding> negotiate(HttpHeaders requestHeaders) {
+    Map<String, Double> qualities = new HashMap<>();
+    for (String value : requestHeaders.getValuesAsList(HttpHeaders.ACCEPT_ENCODING)) {
+      String[] params = value.split(";");
+      qualities.put(params[0].trim().toLowerCase(Locale.ROOT), quality(params));
+    }
+    ContentEncoding accepted = null;
+    double acceptedQuality = 0;
+    for (ContentEncoding encoding : values()) {
+      double quality = qualities.getOrDefault(encoding.coding, qualities.getOrDefault(ANY, 0d));
+      if (quality > acceptedQuality) {
+        accepted = encoding;
+        acceptedQuality = quality;
+      }
+    }
+    return Optional.ofNullable(accepted);
+  }
+
+  /**
+   * Quality value of a coding, 1 if absent and 0 if invalid.
+   */
+  private static double quality(String[] params) {
+    for (int i = 1; i < params.length; i++) {
+      String param = params[i].trim();
+      if (param.startsWith(QUALITY_PARAM)) {
+        try {
+          return Double.parseDouble(param.substring(QUALITY_PARAM.length()));
+        } catch (NumberFormatException ex) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+}
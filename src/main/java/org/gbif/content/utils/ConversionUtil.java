@@ -13,6 +13,12 @@
  */
 package org.gbif.content.utils;
 
+import org.gbif.content.model.EventDoc;
+import org.gbif.content.model.FeedDocument;
+import org.gbif.content.model.GeoPoint;
+
+import java.time.DateTimeException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Year;
@@ -23,28 +29,27 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAccessor;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import co.elastic.clients.elasticsearch.core.GetResponse;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import org.jsoup.Jsoup;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.sun.syndication.feed.synd.SyndContent;
 import com.sun.syndication.feed.synd.SyndContentImpl;
 import com.sun.syndication.feed.synd.SyndEntry;
 import com.sun.syndication.feed.synd.SyndEntryImpl;
 import com.vladsch.flexmark.html.HtmlRenderer;
 import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
 
 import biweekly.component.VEvent;
 
-import static org.gbif.content.utils.SearchFieldsUtils.getDateField;
-import static org.gbif.content.utils.SearchFieldsUtils.getField;
-import static org.gbif.content.utils.SearchFieldsUtils.getLinkUrl;
-import static org.gbif.content.utils.SearchFieldsUtils.getLocationField;
 
 /**
  * Utility class to convert search results into RSS feed and iCal entries.
@@ -53,6 +58,29 @@ public class ConversionUtil {
 
   private static final Parser MARKDOWN_PARSER = Parser.builder().build();
 
+  private static final HtmlRenderer HTML_RENDERER = HtmlRenderer.builder().build();
+
+  /** Maximum accumulated length of the cached rendered fields, in characters */
+  private static final long MAX_RENDERED_SIZE = 8 * 1024 * 1024;
+
+  /** Fragments of old revisions are no longer requested and expire */
+  private static final Duration RENDERED_TTL = Duration.ofHours(12);
+
+  /**
+   * Markdown fields rendered as HTML or plain text. Keys include the document revision, so a
+   * published change produces new entries instead of invalidating the existing ones.
+   */
+  private static final Cache<FragmentKey, String> RENDERED_FRAGMENTS =
+      CacheBuilder.newBuilder()
+          .maximumWeight(MAX_RENDERED_SIZE)
+          .weigher((FragmentKey key, String fragment) -> fragment.length())
+          .expireAfterAccess(RENDERED_TTL)
+          .build();
+
+  private static final int[] POWERS_OF_TEN = {
+    1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000
+  };
+
   private static final DateTimeFormatter FORMATTER =
       DateTimeFormatter.ofPattern(
           "[yyyy-MM-dd'T'HH:mm:ssXXX][yyyy-MM-dd'T'HH:mmXXX][yyyy-MM-dd'T'HH:mmZ][yyyy-MM-dd'T'HH:mm:ss.SSS XXX][yyyy-MM-dd'T'HH:mm:ss.SSSXXX][yyyy-MM-dd'T'HH:mm:ssZ]"
@@ -60,7 +88,10 @@ public class ConversionUtil {
               + "[yyyy-MM-dd'T'HH:mm:ss][yyyy-MM-dd'T'HH:mm:ss XXX][yyyy-MM-dd'T'HH:mm:ssXXX][yyyy-MM-dd'T'HH:mm:ss]"
               + "[yyyy-MM-dd'T'HH:mm][yyyy-MM-dd][yyyy-MM][yyyy]");
 
-  static final Function<String, Date> STRING_TO_DATE =
+  /**
+   * Parses dates with the formatter, it supports all the formats but it is slow.
+   */
+  static final Function<String, Date> FORMATTER_TO_DATE =
       dateAsString -> {
         if (Strings.isNullOrEmpty(dateAsString)) {
           return null;
@@ -111,6 +142,15 @@ public class ConversionUtil {
         return dateParsed;
       };
 
+  static final Function<String, Date> STRING_TO_DATE =
+      dateAsString -> {
+        if (Strings.isNullOrEmpty(dateAsString)) {
+          return null;
+        }
+        Date date = parseIsoDate(dateAsString);
+        return date != null ? date : FORMATTER_TO_DATE.apply(dateAsString);
+      };
+
   /**
    * Private constructor.
    */
@@ -132,31 +172,35 @@ public class ConversionUtil {
   /**
    * Transforms a SearchHit into a SyndEntry instance.
    */
-  public static SyndEntry toFeedEntry(Hit<Map> searchHit, String locale, String altBaseLink) {
+  public static SyndEntry toFeedEntry(
+      Hit<? extends FeedDocument> searchHit, String locale, String altBaseLink) {
     SyndEntry entry = new SyndEntryImpl();
-    Map<String, Object> source = (Map<String, Object>) searchHit.source();
-    getField(source, "title", locale).ifPresent(entry::setTitle);
+    FeedDocument document = searchHit.source();
+    Revision revision = Revision.of(searchHit);
+    document.title(locale).ifPresent(entry::setTitle);
     SyndContent description = new SyndContentImpl();
     description.setType("text/html");
-    getField(source, "body", locale)
+    document
+        .body(locale)
         .ifPresent(
             body ->
                 description.setValue(
-                    HtmlRenderer.builder().build().render(MARKDOWN_PARSER.parse(body))));
+                    render(revision, locale, "body.html", () -> toHtml(body))));
     entry.setDescription(description);
     entry.setLink(altBaseLink + '/' + searchHit.id());
-    entry.setPublishedDate(parseDate((String) source.get("createdAt")));
+    entry.setPublishedDate(parseDate(document.createdAt()));
     return entry;
   }
 
   /**
    * Transforms a SearchHit into a VEvent instance.
    */
-  public static VEvent toVEvent(Hit<Map> searchHit, String locale, String altBaseLink) {
-    Map<String, Object> source = (Map<String, Object>) searchHit.source();
+  public static VEvent toVEvent(Hit<EventDoc> searchHit, String locale, String altBaseLink) {
+    EventDoc event = searchHit.source();
     return toVEvent(
-        Optional.ofNullable(source.get("id")).map(id -> (String) id).orElse(""),
-        searchHit.source(),
+        Optional.ofNullable(event.id()).orElse(""),
+        Revision.of(searchHit),
+        event,
         locale,
         altBaseLink);
   }
@@ -164,48 +208,269 @@ public class ConversionUtil {
   /**
    * Converts a ElasticSearch GetResponse into a VEvent instance to be used in an iCal feed.
    */
-  public static VEvent toVEvent(GetResponse<Map> getResponse, String locale, String altBaseLink) {
+  public static VEvent toVEvent(
+      GetResponse<EventDoc> getResponse, String locale, String altBaseLink) {
     if (getResponse.found()) {
-      return toVEvent(getResponse.id(), getResponse.source(), locale, altBaseLink);
+      return toVEvent(
+          getResponse.id(),
+          Revision.of(getResponse),
+          getResponse.source(),
+          locale,
+          altBaseLink);
     }
     return null;
   }
 
   private static VEvent toVEvent(
-      String id, Map source, String locale, String altBaseLink) {
-    HtmlToPlainText formatter = new HtmlToPlainText();
+      String id, Revision revision, EventDoc event, String locale, String altBaseLink) {
     VEvent vEvent = new VEvent();
     vEvent.setUid(id);
-    Map<String, Object> sourceMap = (Map<String, Object>) source;
-    getField(sourceMap, "title", locale)
+    event
+        .title(locale)
         .ifPresent(
             title ->
                 vEvent.setSummary(
-                    sanitizeIcalText(
-                        formatter.getPlainText(
-                            Jsoup.parse(
-                                HtmlRenderer.builder()
-                                    .build()
-                                    .render(MARKDOWN_PARSER.parse(title)))))));
-    getField(sourceMap, "body", locale)
+                    render(revision, locale, "title.text", () -> toICalText(title))));
+    event
+        .body(locale)
         .ifPresent(
             body ->
                 vEvent.setDescription(
-                    sanitizeIcalText(
-                        formatter.getPlainText(
-                            Jsoup.parse(
-                                HtmlRenderer.builder()
-                                    .build()
-                                    .render(MARKDOWN_PARSER.parse(body)))))));
-    getLinkUrl(sourceMap, "primaryLink", locale).ifPresent(vEvent::setUrl);
+                    render(revision, locale, "body.text", () -> toICalText(body))));
+    Optional.ofNullable(event.primaryLink())
+        .flatMap(link -> link.url(locale))
+        .ifPresent(vEvent::setUrl);
     vEvent.setUrl(altBaseLink + '/' + id);
-    getLocationField(sourceMap, "coordinates").ifPresent(vEvent::setLocation);
-    getDateField(sourceMap, "start").ifPresent(vEvent::setDateStart);
-    getDateField(sourceMap, "end").ifPresent(vEvent::setDateEnd);
+    Optional.ofNullable(event.coordinates())
+        .map(GeoPoint::toICalLocation)
+        .ifPresent(vEvent::setLocation);
+    Optional.ofNullable(event.start())
+        .map(ConversionUtil::parseDate)
+        .ifPresent(vEvent::setDateStart);
+    Optional.ofNullable(event.end()).map(ConversionUtil::parseDate).ifPresent(vEvent::setDateEnd);
     return vEvent;
   }
 
+  /**
+   * Renders Markdown text as HTML.
+   */
+  private static String toHtml(String markdown) {
+    return HTML_RENDERER.render(MARKDOWN_PARSER.parse(markdown));
+  }
+
+  /**
+   * Renders Markdown text as a single line of plain text for iCal properties.
+   * The Markdown AST is rendered directly, documents the AST renderer does not support are
+   * rendered as HTML and formatted as plain text.
+   */
+  static String toICalText(String markdown) {
+    Document document = MARKDOWN_PARSER.parse(markdown);
+    return ICalTextRenderer.render(document)
+        .orElseGet(
+            () ->
+                sanitizeIcalText(
+                    new HtmlToPlainText()
+                        .getPlainText(Jsoup.parse(HTML_RENDERER.render(document)))));
+  }
+
+  /**
+   * Gets a rendered field from the fragment cache or renders it.
+   * Fields of documents without a known revision are always rendered.
+   */
+  private static String render(
+      Revision revision, String locale, String field, Supplier<String> renderer) {
+    if (revision == null) {
+      return renderer.get();
+    }
+    FragmentKey key = new FragmentKey(revision, locale, field);
+    String fragment = RENDERED_FRAGMENTS.getIfPresent(key);
+    if (fragment == null) {
+      fragment = renderer.get();
+      if (fragment != null) {
+        RENDERED_FRAGMENTS.put(key, fragment);
+      }
+    }
+    return fragment;
+  }
+
+  /**
+   * Version of an indexed document, taken from its primary term and sequence number or, if those
+   * were not requested, from its updatedAt field.
+   */
+  private record Revision(String index, String id, String version) {
+
+    static Revision of(Hit<? extends FeedDocument> hit) {
+      return of(
+          hit.index(), hit.id(), hit.primaryTerm(), hit.seqNo(), hit.source().updatedAt());
+    }
+
+    static Revision of(GetResponse<? extends FeedDocument> getResponse) {
+      return of(
+          getResponse.index(),
+          getResponse.id(),
+          getResponse.primaryTerm(),
+          getResponse.seqNo(),
+          getResponse.source().updatedAt());
+    }
+
+    private static Revision of(
+        String index, String id, Long primaryTerm, Long seqNo, String updatedAt) {
+      if (primaryTerm != null && seqNo != null) {
+        return new Revision(index, id, primaryTerm + ":" + seqNo);
+      }
+      return updatedAt != null ? new Revision(index, id, updatedAt) : null;
+    }
+  }
+
+  /**
+   * Identifies a rendered field of a document revision.
+   */
+  private record FragmentKey(Revision revision, String locale, String field) {}
+
   public static Date parseDate(String date) {
     return STRING_TO_DATE.apply(date);
   }
+
+  /**
+   * Parses without the formatter the ISO-8601 shapes stored in the indices: yyyy, yyyy-MM,
+   * yyyy-MM-dd and yyyy-MM-dd'T'HH:mm[:ss[.SSS[SSS]]] followed by an optional Z, +HH:mm or +HHmm
+   * offset, dates without offset are in UTC. The result is the same as the formatter's.
+   *
+   * @return the parsed date or null if the text has another shape or invalid values, those are
+   *     left to the formatter
+   */
+  static Date parseIsoDate(String text) {
+    int length = text.length();
+    // year 0000 is converted by the formatter path
+    if (length < 4 || text.startsWith("0000")) {
+      return null;
+    }
+    int year = digits(text, 0, 4);
+    int month = 1;
+    int day = 1;
+    if (length > 4) {
+      if (length < 7 || text.charAt(4) != '-') {
+        return null;
+      }
+      month = digits(text, 5, 7);
+      if (length > 7) {
+        if (length < 10 || text.charAt(7) != '-') {
+          return null;
+        }
+        day = digits(text, 8, 10);
+      }
+    }
+    if (year < 0 || month < 0 || day < 0) {
+      return null;
+    }
+    if (length <= 10) {
+      return toDate(year, month, day, 0, 0, 0, 0, ZoneOffset.UTC);
+    }
+    if (length < 16 || text.charAt(10) != 'T' || text.charAt(13) != ':') {
+      return null;
+    }
+    int hour = digits(text, 11, 13);
+    int minute = digits(text, 14, 16);
+    int second = 0;
+    int nanos = 0;
+    int fractionDigits = 0;
+    int pos = 16;
+    if (pos < length && text.charAt(pos) == ':') {
+      if (length < 19) {
+        return null;
+      }
+      second = digits(text, 17, 19);
+      pos = 19;
+      if (pos < length && text.charAt(pos) == '.') {
+        int start = ++pos;
+        while (pos < length && Character.isDigit(text.charAt(pos)) && pos - start < 6) {
+          pos++;
+        }
+        fractionDigits = pos - start;
+        if (fractionDigits < 3) {
+          return null;
+        }
+        nanos = digits(text, start, pos) * POWERS_OF_TEN[9 - fractionDigits];
+      }
+    }
+    if (hour < 0 || minute < 0 || second < 0) {
+      return null;
+    }
+    ZoneOffset offset = ZoneOffset.UTC;
+    if (pos < length) {
+      // the formatter only accepts offsets after fractions of 3 digits
+      if (fractionDigits != 0 && fractionDigits != 3) {
+        return null;
+      }
+      char sign = text.charAt(pos);
+      int offsetLength = length - pos - 1;
+      if (sign == 'Z' && offsetLength == 0) {
+        offset = ZoneOffset.UTC;
+      } else if (sign == '+' || sign == '-') {
+        int hours = digits(text, pos + 1, pos + 3);
+        int minutes;
+        if (offsetLength == 5 && text.charAt(pos + 3) == ':') {
+          minutes = digits(text, pos + 4, pos + 6);
+        } else if (offsetLength == 4 && fractionDigits == 0) {
+          minutes = digits(text, pos + 3, pos + 5);
+        } else {
+          return null;
+        }
+        if (hours < 0 || minutes < 0) {
+          return null;
+        }
+        offset = offset(sign == '-' ? -hours : hours, sign == '-' ? -minutes : minutes);
+        if (offset == null) {
+          return null;
+        }
+      } else {
+        return null;
+      }
+    }
+    return toDate(year, month, day, hour, minute, second, nanos, offset);
+  }
+
+  /**
+   * Value of the decimal digits between start, inclusive, and end, exclusive; -1 if there are
+   * other characters.
+   */
+  private static int digits(String text, int start, int end) {
+    int value = 0;
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+
+  private static ZoneOffset offset(int hours, int minutes) {
+    try {
+      return ZoneOffset.ofHoursMinutes(hours, minutes);
+    } catch (DateTimeException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Builds the date, null if a field is out of range.
+   */
+  private static Date toDate(
+      int year,
+      int month,
+      int day,
+      int hour,
+      int minute,
+      int second,
+      int nanos,
+      ZoneOffset offset) {
+    try {
+      return Date.from(
+          LocalDateTime.of(year, month, day, hour, minute, second, nanos).toInstant(offset));
+    } catch (DateTimeException ex) {
+      return null;
+    }
+  }
 }
@@ -0,0 +1,287 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.utils;
+
+import java.util.Optional;
+
+import org.jsoup.internal.StringUtil;
+
+import com.vladsch.flexmark.ast.AutoLink;
+import com.vladsch.flexmark.ast.BlockQuote;
+import com.vladsch.flexmark.ast.BulletList;
+import com.vladsch.flexmark.ast.DelimitedLinkNode;
+import com.vladsch.flexmark.ast.Emphasis;
+import com.vladsch.flexmark.ast.HardLineBreak;
+import com.vladsch.flexmark.ast.Heading;
+import com.vladsch.flexmark.ast.HtmlEntity;
+import com.vladsch.flexmark.ast.Image;
+import com.vladsch.flexmark.ast.Link;
+import com.vladsch.flexmark.ast.ListItem;
+import com.vladsch.flexmark.ast.MailLink;
+import com.vladsch.flexmark.ast.OrderedList;
+import com.vladsch.flexmark.ast.Paragraph;
+import com.vladsch.flexmark.ast.SoftLineBreak;
+import com.vladsch.flexmark.ast.StrongEmphasis;
+import com.vladsch.flexmark.ast.Text;
+import com.vladsch.flexmark.ast.TextBase;
+import com.vladsch.flexmark.ast.ThematicBreak;
+import com.vladsch.flexmark.parser.ListOptions;
+import com.vladsch.flexmark.util.ast.BlankLine;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.Node;
+
+/**
+ * Renders a Markdown document as the single line of plain text used in iCal properties.
+ * The output is the same as rendering the document as HTML, formatting it with
+ * {@link HtmlToPlainText} and sanitizing it with {@link ConversionUtil#sanitizeIcalText(String)},
+ * but it is produced in one walk of the Markdown AST: the text between the HTML tags the document
+ * would have is fed to the same formatting rules. Documents with other nodes, e.g.: embedded
+ * HTML, code or link references, are not supported.
+ */
+final class ICalTextRenderer {
+
+  /** Same line width as HtmlToPlainText, its word wrap can drop trailing spaces */
+  private static final int MAX_WIDTH = 80;
+
+  private final ListOptions listOptions;
+
+  /** Text between HTML tags, it becomes a single text node once a tag is reached */
+  private final StringBuilder text = new StringBuilder();
+
+  /** Whether the rendered HTML would be at the start of a line */
+  private boolean lineStart = true;
+
+  private final StringBuilder accum = new StringBuilder();
+
+  private int width;
+
+  private ICalTextRenderer(ListOptions listOptions) {
+    this.listOptions = listOptions;
+  }
+
+  /**
+   * Renders a document, empty if the document has nodes that are not supported.
+   */
+  static Optional<String> render(Document document) {
+    ICalTextRenderer renderer = new ICalTextRenderer(ListOptions.get(document));
+    if (!renderer.renderChildren(document)) {
+      return Optional.empty();
+    }
+    renderer.flushText();
+    return Optional.of(sanitize(renderer.accum));
+  }
+
+  private boolean renderChildren(Node parent) {
+    for (Node node = parent.getFirstChild(); node != null; node = node.getNext()) {
+      if (!render(node)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean render(Node node) {
+    if (node instanceof Text) {
+      characters(node.getChars().unescape());
+    } else if (node instanceof TextBase) {
+      return renderChildren(node);
+    } else if (node instanceof SoftLineBreak) {
+      characters("\n");
+    } else if (node instanceof HardLineBreak) {
+      startTag("br");
+      endTag("br");
+      line();
+    } else if (node instanceof HtmlEntity) {
+      characters(org.jsoup.parser.Parser.unescapeEntities(node.getChars().toString(), false));
+    } else if (node instanceof Emphasis) {
+      return inline("em", node);
+    } else if (node instanceof StrongEmphasis) {
+      return inline("strong", node);
+    } else if (node instanceof Link link) {
+      startTag("a");
+      boolean rendered = renderChildren(link);
+      endLink(link.getUrl().unescape());
+      return rendered;
+    } else if (node instanceof AutoLink || node instanceof MailLink) {
+      String address = ((DelimitedLinkNode) node).getText().unescape();
+      startTag("a");
+      characters(address);
+      endLink(node instanceof MailLink ? "mailto:" + address : address);
+    } else if (node instanceof Image) {
+      startTag("img");
+      endTag("img");
+    } else if (node instanceof Paragraph paragraph) {
+      if (node.getParent() instanceof ListItem item
+          && item.isParagraphWrappingDisabled(paragraph, listOptions, node.getDocument())) {
+        return renderChildren(node);
+      }
+      return block("p", node, false);
+    } else if (node instanceof Heading heading) {
+      return block("h" + heading.getLevel(), node, false);
+    } else if (node instanceof BulletList) {
+      return block("ul", node, true);
+    } else if (node instanceof OrderedList) {
+      return block("ol", node, true);
+    } else if (node instanceof ListItem item) {
+      return block("li", node, !listOptions.isTightListItem(item));
+    } else if (node instanceof BlockQuote) {
+      return block("blockquote", node, true);
+    } else if (node instanceof ThematicBreak) {
+      line();
+      startTag("hr");
+      endTag("hr");
+      line();
+    } else {
+      return node instanceof BlankLine;
+    }
+    return true;
+  }
+
+  private boolean inline(String tag, Node node) {
+    startTag(tag);
+    boolean rendered = renderChildren(node);
+    endTag(tag);
+    return rendered;
+  }
+
+  /**
+   * Block elements start and end lines, containers also start a line after their opening tag.
+   */
+  private boolean block(String tag, Node node, boolean container) {
+    line();
+    startTag(tag);
+    if (container) {
+      line();
+    }
+    boolean rendered = renderChildren(node);
+    if (container) {
+      line();
+    }
+    endTag(tag);
+    line();
+    return rendered;
+  }
+
+  private void line() {
+    if (!lineStart) {
+      characters("\n");
+    }
+  }
+
+  private void characters(CharSequence chars) {
+    if (!chars.isEmpty()) {
+      text.append(chars);
+      lineStart = chars.charAt(chars.length() - 1) == '\n';
+    }
+  }
+
+  /**
+   * Formatting rules of HtmlToPlainText when an element is first seen.
+   */
+  private void startTag(String tag) {
+    flushText();
+    lineStart = false;
+    if ("li".equals(tag)) {
+      append("\n * ");
+    } else if (StringUtil.in(tag, "p", "h1", "h2", "h3", "h4", "h5")) {
+      append("\n");
+    }
+  }
+
+  /**
+   * Formatting rules of HtmlToPlainText once all the children of an element were visited.
+   */
+  private void endTag(String tag) {
+    flushText();
+    lineStart = false;
+    if (StringUtil.in(tag, "br", "p", "h1", "h2", "h3", "h4", "h5")) {
+      append("\n");
+    }
+  }
+
+  private void endLink(String url) {
+    endTag("a");
+    // like the absolute url of an element parsed without a base uri
+    append(String.format(" <%s>", StringUtil.resolve("", url)));
+  }
+
+  /**
+   * Appends the pending text as a text node, whose whitespace is normalized.
+   */
+  private void flushText() {
+    if (!text.isEmpty()) {
+      append(StringUtil.normaliseWhitespace(text.toString()));
+      text.setLength(0);
+    }
+  }
+
+  /**
+   * Word wrap of HtmlToPlainText.
+   */
+  private void append(String chars) {
+    if (chars.startsWith("\n")) {
+      width = 0;
+    }
+    if (chars.equals(" ")
+        && (accum.isEmpty() || StringUtil.in(accum.substring(accum.length() - 1), " ", "\n"))) {
+      return;
+    }
+    if (chars.length() + width > MAX_WIDTH) {
+      String[] words = chars.split("\\s+");
+      for (int i = 0; i < words.length; i++) {
+        String word = i == words.length - 1 ? words[i] : words[i] + " ";
+        if (word.length() + width > MAX_WIDTH) {
+          accum.append("\n").append(word);
+          width = word.length();
+        } else {
+          accum.append(word);
+          width += word.length();
+        }
+      }
+    } else {
+      accum.append(chars);
+      width += chars.length();
+    }
+  }
+
+  /**
+   * Same result as {@link ConversionUtil#sanitizeIcalText(String)}: trims the text and replaces
+   * each run of whitespace by a single space.
+   */
+  private static String sanitize(CharSequence chars) {
+    int start = 0;
+    int end = chars.length();
+    while (start < end && chars.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && chars.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    StringBuilder sanitized = new StringBuilder(end - start);
+    boolean whitespace = false;
+    for (int i = start; i < end; i++) {
+      char c = chars.charAt(i);
+      if (c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r') {
+        if (!whitespace) {
+          sanitized.append(' ');
+        }
+        whitespace = true;
+      } else {
+        sanitized.append(c);
+        whitespace = false;
+      }
+    }
+    return sanitized.toString();
+  }
+}
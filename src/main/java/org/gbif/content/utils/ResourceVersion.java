@@ -0,0 +1,189 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.utils;
+
+import org.gbif.content.model.FeedDocument;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import co.elastic.clients.elasticsearch.core.GetResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Version of a resource built from ElasticSearch documents, used to answer conditional requests.
+ * The ETag is derived from the _seq_no and _primary_term of each document. Single documents also
+ * have the last modified date of their updatedAt, or createdAt, field; lists do not, a document
+ * leaving a list does not change the newest date of the rest.
+ *
+ * @param eTag         strong and quoted entity tag
+ * @param lastModified newest modification date, null if unknown
+ */
+public record ResourceVersion(String eTag, Instant lastModified) {
+
+  private static final String UPDATED_AT_FIELD = "updatedAt";
+
+  private static final String CREATED_AT_FIELD = "createdAt";
+
+  private static final String WEAK_PREFIX = "W/";
+
+  private static final String ANY = "*";
+
+  /**
+   * Version of a list of search hits, the hits must be requested with seq_no_primary_term.
+   * Lists are only versioned by their ETag.
+   */
+  public static ResourceVersion of(Collection<? extends Hit<?>> hits) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    for (Hit<?> hit : hits) {
+      putDocument(hasher, hit.index(), hit.id(), hit.seqNo(), hit.primaryTerm());
+    }
+    return new ResourceVersion('"' + hasher.hash().toString() + '"', null);
+  }
+
+  /**
+   * Version of a document retrieved by id.
+   */
+  public static ResourceVersion of(GetResponse<?> getResponse) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    putDocument(
+        hasher,
+        getResponse.index(),
+        getResponse.id(),
+        getResponse.seqNo(),
+        getResponse.primaryTerm());
+    return new ResourceVersion(
+        '"' + hasher.hash().toString() + '"', lastModified(getResponse.source()));
+  }
+
+  /**
+   * Version of a serialized resource not stored in ElasticSearch, derived from its content.
+   */
+  public static ResourceVersion of(byte[] content) {
+    return new ResourceVersion(
+        '"' + Hashing.murmur3_128().hashBytes(content).toString() + '"', null);
+  }
+
+  /**
+   * Version of a single search hit.
+   */
+  public static ResourceVersion of(Hit<?> hit) {
+    return new ResourceVersion(of(List.of(hit)).eTag(), lastModified(hit.source()));
+  }
+
+  /**
+   * Version of an encoded representation, encodings of a resource must have distinct strong
+   * ETags.
+   */
+  public ResourceVersion encoded(ContentEncoding encoding) {
+    return new ResourceVersion(
+        eTag.substring(0, eTag.length() - 1) + '-' + encoding.getCoding() + '"', lastModified);
+  }
+
+  private static void putDocument(
+      Hasher hasher, String index, String id, Long seqNo, Long primaryTerm) {
+    hasher
+        .putString(index, StandardCharsets.UTF_8)
+        .putString(id, StandardCharsets.UTF_8)
+        .putLong(Optional.ofNullable(seqNo).orElse(-1L))
+        .putLong(Optional.ofNullable(primaryTerm).orElse(-1L));
+  }
+
+  /**
+   * Modification date of a document, its creation date if it has never been updated.
+   * The source is either a typed feed document or a map of fields.
+   */
+  private static Instant lastModified(Object source) {
+    Object date = null;
+    if (source instanceof FeedDocument document) {
+      date = document.lastModified();
+    } else if (source instanceof Map<?, ?> fields) {
+      date = Optional.ofNullable(fields.get(UPDATED_AT_FIELD)).orElse(fields.get(CREATED_AT_FIELD));
+    }
+    try {
+      return date instanceof String value
+          ? Optional.ofNullable(ConversionUtil.parseDate(value)).map(Date::toInstant).orElse(null)
+          : null;
+    } catch (DateTimeParseException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Evaluates the If-None-Match and If-Modified-Since headers against this version.
+   * If-Modified-Since is ignored when If-None-Match is present.
+   */
+  public boolean isNotModified(HttpHeaders requestHeaders) {
+    List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+    if (!ifNoneMatch.isEmpty()) {
+      return ifNoneMatch.stream()
+          .map(tag -> tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag)
+          .anyMatch(tag -> ANY.equals(tag) || eTag.equals(tag));
+    }
+    long ifModifiedSince = requestHeaders.getIfModifiedSince();
+    // HTTP dates have a precision of seconds
+    return ifModifiedSince >= 0
+        && lastModified != null
+        && lastModified.getEpochSecond() * 1000 <= ifModifiedSince;
+  }
+
+  /**
+   * Builds a 304 response if the client copy is current, otherwise a 200 response whose body is
+   * only produced in that case.
+   */
+  public <T> ResponseEntity<T> toResponse(HttpHeaders requestHeaders, Supplier<T> body) {
+    return toResponse(requestHeaders, null, body);
+  }
+
+  /**
+   * Same as {@link #toResponse(HttpHeaders, Supplier)} but setting the content type of the body,
+   * required by bodies that are not written by message converters.
+   */
+  public <T> ResponseEntity<T> toResponse(
+      HttpHeaders requestHeaders, MediaType contentType, Supplier<T> body) {
+    if (isNotModified(requestHeaders)) {
+      return notModified();
+    }
+    ResponseEntity.BodyBuilder builder = headers(ResponseEntity.ok());
+    Optional.ofNullable(contentType).ifPresent(builder::contentType);
+    return builder.body(body.get());
+  }
+
+  /**
+   * Builds a 304 response.
+   */
+  public <T> ResponseEntity<T> notModified() {
+    return headers(ResponseEntity.status(HttpStatus.NOT_MODIFIED)).build();
+  }
+
+  private ResponseEntity.BodyBuilder headers(ResponseEntity.BodyBuilder builder) {
+    builder.eTag(eTag);
+    Optional.ofNullable(lastModified).ifPresent(builder::lastModified);
+    return builder;
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import com.sun.syndication.feed.synd.SyndContent;
+import com.sun.syndication.feed.synd.SyndEntry;
+import com.sun.syndication.feed.synd.SyndFeed;
+
+/**
+ * Writes RSS 2.0 feeds entry by entry into an output stream.
+ * The output has the same elements produced by the ROME rss_2.0 SyndFeedOutput but it does not
+ * build the whole document in memory before writing it.
+ */
+public class RssFeedWriter implements AutoCloseable {
+
+  private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+  private static final String DC_PREFIX = "dc";
+
+  private static final String DC_NS = "http://purl.org/dc/elements/1.1/";
+
+  private static final String INDENT = "  ";
+
+  private static final DateTimeFormatter RFC_822 =
+      DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+          .withZone(ZoneOffset.UTC);
+
+  private static final DateTimeFormatter W3C =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US).withZone(ZoneOffset.UTC);
+
+  private final XMLStreamWriter writer;
+
+  /**
+   * Writes the feed header, the channel elements are taken from the feed.
+   */
+  public RssFeedWriter(OutputStream out, SyndFeed channel) throws IOException {
+    try {
+      writer = XML_OUTPUT_FACTORY.createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+      writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+      newLine(0);
+      writer.writeStartElement("rss");
+      writer.writeNamespace(DC_PREFIX, DC_NS);
+      writer.writeAttribute("version", "2.0");
+      newLine(1);
+      writer.writeStartElement("channel");
+      writeElement(2, "title", channel.getTitle());
+      writeElement(2, "link", channel.getLink());
+      writeElement(2, "description", channel.getDescription());
+      writeElement(2, "language", channel.getLanguage());
+      writeDcElement(2, "language", channel.getLanguage());
+    } catch (XMLStreamException ex) {
+      throw new IOException(ex);
+    }
+  }
+
+  /**
+   * Writes a feed item.
+   */
+  public void write(SyndEntry entry) throws IOException {
+    try {
+      newLine(2);
+      writer.writeStartElement("item");
+      writeElement(3, "title", entry.getTitle());
+      writeElement(3, "link", entry.getLink());
+      SyndContent description = entry.getDescription();
+      if (description != null) {
+        newLine(3);
+        writer.writeStartElement("description");
+        if (description.getValue() != null) {
+          writer.writeCharacters(description.getValue().trim());
+        }
+        writer.writeEndElement();
+      }
+      Date publishedDate = entry.getPublishedDate();
+      if (publishedDate != null) {
+        writeElement(3, "pubDate", RFC_822.format(publishedDate.toInstant()));
+      }
+      writeElement(3, "guid", entry.getLink());
+      if (publishedDate != null) {
+        writeDcElement(3, "date", W3C.format(publishedDate.toInstant()));
+      }
+      newLine(2);
+      writer.writeEndElement();
+    } catch (XMLStreamException ex) {
+      throw new IOException(ex);
+    }
+  }
+
+  /**
+   * Closes the channel and the document, the underlying stream is flushed but not closed.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      newLine(1);
+      writer.writeEndElement();
+      newLine(0);
+      writer.writeEndElement();
+      newLine(0);
+      writer.writeEndDocument();
+      writer.flush();
+      writer.close();
+    } catch (XMLStreamException ex) {
+      throw new IOException(ex);
+    }
+  }
+
+  private void writeElement(int depth, String name, String value) throws XMLStreamException {
+    if (value != null) {
+      newLine(depth);
+      writer.writeStartElement(name);
+      writer.writeCharacters(value.trim());
+      writer.writeEndElement();
+    }
+  }
+
+  private void writeDcElement(int depth, String name, String value) throws XMLStreamException {
+    if (value != null) {
+      newLine(depth);
+      writer.writeStartElement(DC_PREFIX, name, DC_NS);
+      writer.writeCharacters(value.trim());
+      writer.writeEndElement();
+    }
+  }
+
+  private void newLine(int depth) throws XMLStreamException {
+    writer.writeCharacters("\n");
+    for (int i = 0; i < depth; i++) {
+      writer.writeCharacters(INDENT);
+    }
+  }
+}
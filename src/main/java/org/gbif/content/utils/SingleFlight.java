@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical asynchronous calls.
+ * While a call is in flight, callers with the same key share its result instead of starting a new
+ * call. Completed calls are forgotten, so results are never reused after they are delivered.
+ *
+ * @param <K> key identifying equivalent calls
+ * @param <V> result of the calls
+ */
+public final class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Executes the call unless an identical call is in flight, in which case its result is shared.
+   * Each caller gets its own dependent future, cancelling it does not affect the other callers.
+   */
+  public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+    CompletableFuture<V> result = new CompletableFuture<>();
+    CompletableFuture<V> current = inFlight.putIfAbsent(key, result);
+    if (current != null) {
+      return current.copy();
+    }
+    try {
+      call.get()
+          .whenComplete(
+              (value, ex) -> {
+                inFlight.remove(key, result);
+                if (ex != null) {
+                  result.completeExceptionally(ex);
+                } else {
+                  result.complete(value);
+                }
+              });
+    } catch (RuntimeException ex) {
+      inFlight.remove(key, result);
+      result.completeExceptionally(ex);
+    }
+    return result.copy();
+  }
+
+  /**
+   * Number of calls in flight.
+   */
+  public int size() {
+    return inFlight.size();
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.resource;
+
+import org.gbif.content.ContentWsApplication;
+import org.gbif.content.crawl.conf.ContentCrawlConfiguration;
+import org.gbif.content.service.ContentLocations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.util.ObjectBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.elasticsearch.ElasticsearchRestClientAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit tests of the batch requests of the ContentResource.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+    classes = {ContentWsApplication.class},
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@EnableAutoConfiguration(exclude = {
+    ElasticsearchRestClientAutoConfiguration.class
+})
+public class ContentResourceTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ContentCrawlConfiguration.Contentful configuration;
+
+  @MockBean
+  @Qualifier("searchClient")
+  private ElasticsearchClient searchClient;
+
+  @MockBean
+  private ElasticsearchAsyncClient esClient;
+
+  @MockBean
+  private ContentLocations contentLocations;
+
+  private static Hit<Map> hit(String index, String id) {
+    return Hit.of(
+        h -> h.index(index).id(id).seqNo(1L).primaryTerm(1L).source(Map.of("id", id)));
+  }
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    SearchResponse<Map> response =
+        SearchResponse.of(
+            r -> r
+                .took(1)
+                .timedOut(false)
+                .shards(s -> s.total(1).successful(1).failed(0))
+                .hits(h -> h.hits(
+                    List.of(
+                        hit("news", "a"),
+                        hit("article", "b"),
+                        hit("news", "c"),
+                        hit("article", "a")))));
+    when(esClient.search(any(Function.class), eq(Map.class)))
+        .thenReturn(CompletableFuture.completedFuture(response));
+  }
+
+  private String perform(RequestBuilder requestBuilder) throws Exception {
+    MvcResult result =
+        mockMvc.perform(requestBuilder).andExpect(request().asyncStarted()).andReturn();
+    return mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getContentAsString();
+  }
+
+  /**
+   * Documents are returned in the order of the ids, ids not found are skipped and ids found in
+   * several indices are returned once. Each id is requested once per content index.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testGetContentsInRequestOrder() throws Exception {
+    String body = perform(get("/content").param("ids", "c,missing,a,b"));
+
+    assertEquals("{\"c\":{\"id\":\"c\"},\"a\":{\"id\":\"a\"},\"b\":{\"id\":\"b\"}}", body);
+    ArgumentCaptor<Function<SearchRequest.Builder, ObjectBuilder<SearchRequest>>> search =
+        ArgumentCaptor.forClass(Function.class);
+    verify(esClient).search(search.capture(), eq(Map.class));
+    assertEquals(
+        4 * configuration.getContentTypes().size(),
+        search.getValue().apply(new SearchRequest.Builder()).build().size());
+  }
+
+  /**
+   * Long lists of ids are posted and answered as the ones in the URL.
+   */
+  @Test
+  public void testPostContents() throws Exception {
+    String body =
+        perform(
+            post("/content")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"b\", \"missing\", \"a\", \"b\"]"));
+
+    assertEquals("{\"b\":{\"id\":\"b\"},\"a\":{\"id\":\"a\"}}", body);
+  }
+
+  /**
+   * Requests of more than 100 ids are rejected before searching.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testTooManyIds() throws Exception {
+    String ids =
+        IntStream.rangeClosed(0, 100).mapToObj(Integer::toString).collect(Collectors.joining(","));
+    mockMvc.perform(get("/content").param("ids", ids)).andExpect(status().isBadRequest());
+    mockMvc
+        .perform(
+            post("/content")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"" + ids.replace(",", "\",\"") + "\"]"))
+        .andExpect(status().isBadRequest());
+    verify(esClient, never()).search(any(Function.class), eq(Map.class));
+  }
+}
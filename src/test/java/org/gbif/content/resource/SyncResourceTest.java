@@ -17,11 +17,14 @@ import co.elastic.clients.elasticsearch.ElasticsearchClient;
 
 import org.gbif.content.ContentWsApplication;
 import org.gbif.content.config.ContentWsProperties;
-import org.gbif.content.service.JenkinsJobClient;
+import org.gbif.content.service.ContentTypeRegistry;
+import org.gbif.content.service.CrawlTrigger;
+import org.gbif.content.service.EntryIndexer;
 import org.gbif.content.service.WebHookRequest;
 import org.gbif.content.utils.Paths;
 
-import org.junit.jupiter.api.BeforeEach;
+import java.io.IOException;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,11 +35,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -65,12 +75,13 @@ public class SyncResourceTest {
   @Autowired private ContentWsProperties properties;
 
   @MockBean
-  private JenkinsJobClient jenkinsJobClient;
+  private CrawlTrigger crawlTrigger;
 
-  @BeforeEach
-  public void setup() {
-    when(jenkinsJobClient.execute("dev")).thenReturn(ResponseEntity.accepted().build());
-  }
+  @MockBean
+  private ContentTypeRegistry contentTypeRegistry;
+
+  @MockBean
+  private EntryIndexer entryIndexer;
 
   /**
    * Builds the test credentials.
@@ -109,4 +120,90 @@ public class SyncResourceTest {
                     WebHookRequest.Topic.EntryPublish.getValue()))
         .andExpect(status().isAccepted());
   }
+
+  /**
+   * Saved drafts only evict the previews, they do not trigger a crawl.
+   */
+  @Test
+  public void testAutoSaveDoesNotCrawl() throws Exception {
+    mockMvc
+        .perform(
+            post(Paths.SYNC_RESOURCE_PATH)
+                .param("env", "dev")
+                .content("{\"sys\": {\"type\": \"Entry\", \"id\": \"82531\", \"version\": 7}}")
+                .contentType(SyncResource.CONTENTFUL_CONTENT_TYPE)
+                .header(HttpHeaders.AUTHORIZATION, getAuthCredentials())
+                .header(
+                    WebHookRequest.CONTENTFUL_TOPIC_HEADER,
+                    WebHookRequest.Topic.EntryAutoSave.getValue()))
+        .andExpect(status().isOk());
+    verify(crawlTrigger, never()).request(any());
+  }
+
+  /**
+   * Schema changes reload the content types and trigger a crawl.
+   */
+  @Test
+  public void testContentTypeChangeReloadsContentTypes() throws Exception {
+    mockMvc
+        .perform(
+            post(Paths.SYNC_RESOURCE_PATH)
+                .param("env", "dev")
+                .content("{\"sys\": {\"type\": \"ContentType\", \"id\": \"news\"}}")
+                .contentType(SyncResource.CONTENTFUL_CONTENT_TYPE)
+                .header(HttpHeaders.AUTHORIZATION, getAuthCredentials())
+                .header(
+                    WebHookRequest.CONTENTFUL_TOPIC_HEADER,
+                    WebHookRequest.Topic.ContentTypePublish.getValue()))
+        .andExpect(status().isAccepted());
+    verify(contentTypeRegistry).refresh();
+    verify(crawlTrigger).request(devChange("news"));
+  }
+
+  private ResultActions publish(String contentTypeId) throws Exception {
+    return mockMvc.perform(
+        post(Paths.SYNC_RESOURCE_PATH)
+            .param("env", "dev")
+            .content(
+                "{\"sys\": {\"type\": \"Entry\", \"id\": \"82531\", \"contentType\": "
+                    + "{\"sys\": {\"id\": \"" + contentTypeId + "\"}}}}")
+            .contentType(SyncResource.CONTENTFUL_CONTENT_TYPE)
+            .header(HttpHeaders.AUTHORIZATION, getAuthCredentials())
+            .header(
+                WebHookRequest.CONTENTFUL_TOPIC_HEADER,
+                WebHookRequest.Topic.EntryPublish.getValue()));
+  }
+
+  /**
+   * Published entries of crawled content types are indexed in the background without a crawl.
+   */
+  @Test
+  public void testPublishIndexesEntry() throws Exception {
+    when(entryIndexer.isIndexable("DataUse")).thenReturn(true);
+
+    publish("DataUse").andExpect(status().isAccepted());
+    verify(entryIndexer, timeout(1_000)).index(any(), eq("datause"), eq("82531"));
+    verify(crawlTrigger, never()).request(any());
+  }
+
+  /**
+   * A crawl is run when a published entry can not be indexed.
+   */
+  @Test
+  public void testPublishFallsBackToCrawl() throws Exception {
+    when(entryIndexer.isIndexable("DataUse")).thenReturn(true);
+    doThrow(new IOException("unavailable"))
+        .when(entryIndexer)
+        .index(any(), eq("datause"), eq("82531"));
+
+    publish("DataUse").andExpect(status().isAccepted());
+    verify(crawlTrigger, timeout(1_000)).request(devChange("82531"));
+  }
+
+  /**
+   * Matches the change of an element in the dev environment.
+   */
+  private static WebHookRequest devChange(String id) {
+    return argThat(change -> "dev".equals(change.getEnv()) && id.equals(change.getId()));
+  }
 }
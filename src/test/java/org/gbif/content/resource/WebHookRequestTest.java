@@ -44,6 +44,7 @@ public class WebHookRequestTest {
     assertEquals("DataUse", webHookRequest.getContentTypeId());
     assertEquals("83217", webHookRequest.getId());
     assertEquals("Entry", webHookRequest.getType());
+    assertEquals(4L, webHookRequest.getRevision());
   }
 
   /**
@@ -0,0 +1,52 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.config.ContentWsProperties;
+import org.gbif.content.utils.ResourceVersion;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for the ContentCache class.
+ */
+public class ContentCacheTest {
+
+  private static ContentCache.Document document(String json) {
+    return new ContentCache.Document(
+        json.getBytes(StandardCharsets.UTF_8), new ResourceVersion("\"1\"", null));
+  }
+
+  /**
+   * Documents read before an eviction are not cached, the ones read afterwards are.
+   */
+  @Test
+  public void testReadBeforeInvalidation() {
+    ContentCache contentCache = new ContentCache(new ContentWsProperties());
+
+    long read = contentCache.generation();
+    contentCache.invalidate("news1");
+    contentCache.put("news1", document("{\"title\":\"old\"}"), read);
+    assertTrue(contentCache.getIfPresent("news1").isEmpty());
+
+    ContentCache.Document current = document("{\"title\":\"new\"}");
+    contentCache.put("news1", current, contentCache.generation());
+    assertSame(current, contentCache.getIfPresent("news1").orElseThrow());
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.config.ContentWsProperties;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.contentful.java.cma.model.CMAContentType;
+import com.contentful.java.cma.model.CMAField;
+import com.contentful.java.cma.model.CMAType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for the ContentTypeSnapshot class.
+ */
+public class ContentTypeSnapshotTest {
+
+  @TempDir
+  private Path directory;
+
+  /**
+   * The content types read from a snapshot keep the ids, names and field validations used to build
+   * the vocabularies.
+   */
+  @Test
+  public void testWriteAndRead() {
+    ContentWsProperties properties = new ContentWsProperties();
+    properties.setContentTypesSnapshot(
+        directory.resolve("snapshot/contentTypes.json.gz").toString());
+    ContentTypeSnapshot snapshot = new ContentTypeSnapshot(properties);
+    assertTrue(snapshot.read().isEmpty());
+
+    List<Map> validations = List.of(Map.of("in", List.of("Biodiversity", "Climate")));
+    CMAField field = new CMAField();
+    field.setId("term");
+    field.setName("Term");
+    field.setType(CMAType.Symbol);
+    field.setValidations(validations);
+    CMAContentType contentType = new CMAContentType();
+    contentType.setId("vocabularyTopic");
+    contentType.setName("Vocabulary: Topic");
+    contentType.addField(field);
+    snapshot.write(List.of(contentType));
+
+    List<CMAContentType> read = snapshot.read().orElseThrow();
+    assertEquals(1, read.size());
+    assertEquals("vocabularyTopic", read.get(0).getId());
+    assertEquals("Vocabulary: Topic", read.get(0).getName());
+    CMAField readField = read.get(0).getFields().get(0);
+    assertEquals("term", readField.getId());
+    assertEquals("Term", readField.getName());
+    assertEquals(validations, readField.getValidations());
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.config.ContentWsProperties;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test cases for the ContentfulRateLimits class.
+ */
+public class ContentfulRateLimitsTest {
+
+  private static ContentfulRateLimits rateLimits() {
+    ContentWsProperties properties = new ContentWsProperties();
+    properties.getContentfulApi().setInitialBackoff(Duration.ofMillis(1));
+    return new ContentfulRateLimits(properties, new SimpleMeterRegistry());
+  }
+
+  /**
+   * Calls throttled by Contentful are retried, the exception is wrapped as the clients do.
+   */
+  @Test
+  public void testThrottledCallsAreRetried() {
+    AtomicInteger attempts = new AtomicInteger();
+
+    String result =
+        rateLimits()
+            .limit(
+                () -> {
+                  if (attempts.incrementAndGet() < 3) {
+                    throw new RuntimeException(
+                        new ContentfulRateLimits.ThrottledException(Duration.ZERO));
+                  }
+                  return "entry";
+                });
+
+    assertEquals("entry", result);
+    assertEquals(3, attempts.get());
+  }
+
+  /**
+   * Errors other than throttling and network failures, e.g.: not found, are not retried.
+   */
+  @Test
+  public void testOtherErrorsAreNotRetried() {
+    AtomicInteger attempts = new AtomicInteger();
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            rateLimits()
+                .limit(
+                    () -> {
+                      attempts.incrementAndGet();
+                      throw new IllegalStateException("not found");
+                    }));
+    assertEquals(1, attempts.get());
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.config.SynchronizationProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test cases for the CrawlTrigger class.
+ */
+public class CrawlTriggerTest {
+
+  private final JenkinsJobClient jenkinsJobClient = mock(JenkinsJobClient.class);
+
+  private ScheduledExecutorService scheduler;
+
+  @BeforeEach
+  public void setup() {
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    when(jenkinsJobClient.execute("dev")).thenReturn(ResponseEntity.accepted().build());
+    when(jenkinsJobClient.execute("prod")).thenReturn(ResponseEntity.accepted().build());
+  }
+
+  @AfterEach
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  private CrawlTrigger crawlTrigger(Duration debounce, Duration maxDelay) {
+    SynchronizationProperties properties = new SynchronizationProperties();
+    properties.setCrawlDebounce(debounce);
+    properties.setCrawlMaxDelay(maxDelay);
+    return new CrawlTrigger(jenkinsJobClient, properties, scheduler);
+  }
+
+  private static WebHookRequest change(String env, String id, long revision) {
+    WebHookRequest change = new WebHookRequest();
+    change.setTopic(WebHookRequest.Topic.EntryPublish);
+    change.setEnv(env);
+    change.setId(id);
+    change.setRevision(revision);
+    return change;
+  }
+
+  /**
+   * A burst of changes runs a single crawl per environment, repeated changes are ignored.
+   */
+  @Test
+  public void testBurstRunsOneCrawlPerEnvironment() {
+    CrawlTrigger crawlTrigger = crawlTrigger(Duration.ofMillis(200), Duration.ofMinutes(1));
+
+    assertTrue(crawlTrigger.request(change("dev", "entry1", 1L)));
+    assertTrue(crawlTrigger.request(change("dev", "entry1", 2L)));
+    assertFalse(crawlTrigger.request(change("dev", "entry1", 2L)));
+    assertTrue(crawlTrigger.request(change("dev", "entry2", 1L)));
+    assertTrue(crawlTrigger.request(change("prod", "entry1", 2L)));
+
+    verify(jenkinsJobClient, after(1_000).times(1)).execute("dev");
+    verify(jenkinsJobClient).execute("prod");
+  }
+
+  /**
+   * Changes notified continuously do not delay the crawl beyond the maximum delay.
+   */
+  @Test
+  public void testMaxDelay() throws InterruptedException {
+    CrawlTrigger crawlTrigger = crawlTrigger(Duration.ofMillis(200), Duration.ofMillis(300));
+
+    for (int revision = 0; revision < 10; revision++) {
+      crawlTrigger.request(change("dev", "entry1", revision));
+      Thread.sleep(100);
+    }
+
+    verify(jenkinsJobClient, timeout(1_000).atLeast(2)).execute("dev");
+  }
+
+  /**
+   * Listeners get the changes collected once the crawl job is started.
+   */
+  @Test
+  public void testListenersGetCrawledChanges() {
+    CrawlTrigger crawlTrigger = crawlTrigger(Duration.ofMillis(200), Duration.ofMinutes(1));
+    List<String> crawled = new CopyOnWriteArrayList<>();
+    crawlTrigger.onCrawl(change -> crawled.add(change.getId() + ":" + change.getRevision()));
+
+    crawlTrigger.request(change("dev", "entry1", 1L));
+    crawlTrigger.request(change("dev", "entry2", 1L));
+    crawlTrigger.request(change("dev", "entry1", 1L));
+
+    verify(jenkinsJobClient, timeout(1_000)).execute("dev");
+    verify(jenkinsJobClient, after(200).times(1)).execute("dev");
+    assertEquals(List.of("entry1:1", "entry2:1"), crawled);
+  }
+
+  /**
+   * The changes of a job that Jenkins does not start are crawled later with the ones requested in
+   * the meantime, listeners are notified once the job is started.
+   */
+  @Test
+  public void testFailedCrawlIsRetried() {
+    when(jenkinsJobClient.execute("dev"))
+        .thenReturn(ResponseEntity.internalServerError().build())
+        .thenReturn(ResponseEntity.accepted().build());
+    CrawlTrigger crawlTrigger = crawlTrigger(Duration.ofMillis(200), Duration.ofMinutes(1));
+    List<String> crawled = new CopyOnWriteArrayList<>();
+    crawlTrigger.onCrawl(change -> crawled.add(change.getId()));
+
+    crawlTrigger.request(change("dev", "entry1", 1L));
+    verify(jenkinsJobClient, timeout(1_000)).execute("dev");
+    assertTrue(crawled.isEmpty());
+    crawlTrigger.request(change("dev", "entry2", 1L));
+
+    verify(jenkinsJobClient, timeout(3_000).times(2)).execute("dev");
+    verify(jenkinsJobClient, after(1_500).times(2)).execute("dev");
+    assertEquals(List.of("entry1", "entry2"), crawled.stream().sorted().toList());
+  }
+}
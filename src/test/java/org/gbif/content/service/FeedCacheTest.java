@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.config.ContentWsProperties;
+import org.gbif.content.utils.ResourceVersion;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for the FeedCache class.
+ */
+public class FeedCacheTest {
+
+  private static final FeedCache.Key NEWS_KEY =
+      new FeedCache.Key("rss", "news", "", "en-GB", 10, SortOrder.Desc);
+
+  private static final FeedCache.Key EVENTS_KEY =
+      new FeedCache.Key("ics", "event", "upcoming", "en-GB", 30, SortOrder.Asc);
+
+  private static final ResourceVersion VERSION = new ResourceVersion("\"1\"", null);
+
+  private static Supplier<FeedCache.Feed> render(String feed, AtomicInteger renders) {
+    return () ->
+        new FeedCache.Feed(
+            (feed + renders.incrementAndGet()).getBytes(StandardCharsets.UTF_8), VERSION);
+  }
+
+  private static String body(FeedCache.Feed feed) {
+    return new String(feed.body(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Feeds are rendered once and served from the cache until their index is invalidated.
+   */
+  @Test
+  public void testInvalidateByIndex() {
+    FeedCache feedCache = new FeedCache(new ContentWsProperties());
+    AtomicInteger renders = new AtomicInteger();
+
+    feedCache.get(NEWS_KEY, feedCache.generation(), render("news", renders));
+    feedCache.get(EVENTS_KEY, feedCache.generation(), render("events", renders));
+    assertEquals(
+        "news1", body(feedCache.get(NEWS_KEY, feedCache.generation(), render("news", renders))));
+
+    feedCache.invalidate("news");
+    assertTrue(feedCache.getIfPresent(NEWS_KEY).isEmpty());
+    assertEquals(
+        "news3", body(feedCache.get(NEWS_KEY, feedCache.generation(), render("news", renders))));
+    assertEquals(
+        "events2",
+        body(feedCache.get(EVENTS_KEY, feedCache.generation(), render("events", renders))));
+  }
+
+  /**
+   * Feeds searched before an eviction are served but not cached.
+   */
+  @Test
+  public void testSearchedBeforeInvalidation() {
+    FeedCache feedCache = new FeedCache(new ContentWsProperties());
+    AtomicInteger renders = new AtomicInteger();
+
+    long searched = feedCache.generation();
+    feedCache.invalidate("news");
+    assertEquals("news1", body(feedCache.get(NEWS_KEY, searched, render("news", renders))));
+    assertTrue(feedCache.getIfPresent(NEWS_KEY).isEmpty());
+  }
+}
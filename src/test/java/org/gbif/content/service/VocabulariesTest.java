@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.service;
+
+import org.gbif.content.crawl.conf.ContentCrawlConfiguration;
+import org.gbif.content.crawl.contentful.crawl.VocabularyTerms;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.contentful.java.cma.model.CMAContentType;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test cases for the Vocabularies class.
+ */
+public class VocabulariesTest {
+
+  private static CMAContentType contentType(String name) {
+    CMAContentType contentType = mock(CMAContentType.class);
+    when(contentType.getName()).thenReturn(name);
+    return contentType;
+  }
+
+  /**
+   * New content types replace the terms with new ones, the same content types are not reloaded.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testReloadReplacesTerms() {
+    ContentCrawlConfiguration.Contentful configuration = new ContentCrawlConfiguration.Contentful();
+    configuration.setVocabularies(List.of("Vocabulary: Topic"));
+    List<CMAContentType> contentTypes = List.of(contentType("Vocabulary: Topic"));
+    ContentTypeRegistry contentTypeRegistry = mock(ContentTypeRegistry.class);
+    when(contentTypeRegistry.getContentTypes()).thenReturn(contentTypes);
+
+    Vocabularies vocabularies =
+        new Vocabularies(contentTypeRegistry, configuration, Runnable::run, true);
+    ArgumentCaptor<Consumer<List<CMAContentType>>> listener =
+        ArgumentCaptor.forClass(Consumer.class);
+    verify(contentTypeRegistry).onRefresh(listener.capture());
+    VocabularyTerms loaded = vocabularies.get();
+
+    listener.getValue().accept(contentTypes);
+    assertSame(loaded, vocabularies.get());
+
+    listener.getValue().accept(List.of(contentType("Vocabulary: Topic")));
+    assertNotSame(loaded, vocabularies.get());
+  }
+
+  /**
+   * A change of a vocabulary entry reloads the content types from Contentful.
+   */
+  @Test
+  public void testReloadRefreshesContentTypes() {
+    ContentCrawlConfiguration.Contentful configuration = new ContentCrawlConfiguration.Contentful();
+    configuration.setVocabularies(List.of("Vocabulary: Topic"));
+    List<CMAContentType> contentTypes = List.of(contentType("Vocabulary: Topic"));
+    ContentTypeRegistry contentTypeRegistry = mock(ContentTypeRegistry.class);
+    when(contentTypeRegistry.getContentTypes()).thenReturn(contentTypes);
+
+    new Vocabularies(contentTypeRegistry, configuration, Runnable::run, true).reload();
+    verify(contentTypeRegistry).refresh();
+  }
+}
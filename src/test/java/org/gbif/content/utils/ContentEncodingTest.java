@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentEncodingTest {
+
+  private static Optional<ContentEncoding> negotiate(String... acceptEncoding) {
+    HttpHeaders headers = new HttpHeaders();
+    for (String value : acceptEncoding) {
+      headers.add(HttpHeaders.ACCEPT_ENCODING, value);
+    }
+    return ContentEncoding.negotiate(headers);
+  }
+
+  @Test
+  void negotiateAcceptEncoding() {
+    assertEquals(Optional.of(ContentEncoding.GZIP), negotiate("gzip, deflate, br"));
+    assertEquals(Optional.of(ContentEncoding.GZIP), negotiate("deflate", "GZIP;q=0.5"));
+    assertEquals(Optional.of(ContentEncoding.GZIP), negotiate("*"));
+    assertTrue(negotiate().isEmpty());
+    assertTrue(negotiate("identity").isEmpty());
+    assertTrue(negotiate("gzip;q=0, *").isEmpty());
+    assertTrue(negotiate("gzip;q=invalid").isEmpty());
+  }
+
+  @Test
+  void gzipRoundTrip() throws IOException {
+    byte[] body = "<rss><channel></channel></rss>".repeat(100).getBytes(StandardCharsets.UTF_8);
+    byte[] encoded = ContentEncoding.GZIP.encode(body);
+    assertTrue(encoded.length < body.length);
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+      assertEquals(
+          new String(body, StandardCharsets.UTF_8),
+          new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    ResourceVersion version = new ResourceVersion("\"1\"", null);
+    assertEquals("\"1-gzip\"", version.encoded(ContentEncoding.GZIP).eTag());
+  }
+}
@@ -13,15 +13,26 @@
  */
 package org.gbif.content.utils;
 
+import org.gbif.content.model.EventDoc;
+import org.gbif.content.model.NewsDoc;
+
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
+import java.util.Map;
 
+import co.elastic.clients.elasticsearch.core.search.Hit;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import biweekly.component.VEvent;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class ConversionUtilTest {
@@ -41,6 +52,53 @@ class ConversionUtilTest {
     assertNotNull(ConversionUtil.parseDate(date));
   }
 
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "2026",
+        "2026-09",
+        "2026-09-07",
+        "2026-09-07T10:15",
+        "2026-09-07T10:15:30",
+        "2026-09-07T10:15:30.123",
+        "2026-09-07T10:15:30.123456",
+        "2026-09-07T10:15Z",
+        "2026-09-07T10:15-03:30",
+        "2026-09-07T10:15+0530",
+        "2026-09-07T10:15:30Z",
+        "2026-09-07T10:15:30+02:00",
+        "2026-09-07T10:15:30+0200",
+        "2026-09-07T10:15:30.123Z",
+        "2026-09-07T10:15:30.123-01:00"
+      })
+  void parseIsoDateSameAsFormatter(String date) {
+    assertEquals(ConversionUtil.FORMATTER_TO_DATE.apply(date), ConversionUtil.parseIsoDate(date));
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "0000-01-01",
+        "2026-02-30",
+        "2026-09-07T24:00",
+        "2026-09-07T10:15:30.123 +02:00",
+        "2026-09-07T10:15:30.123456Z",
+        "not-a-date"
+      })
+  void parseIsoDateLeavesOtherInputsToFormatter(String date) {
+    assertNull(ConversionUtil.parseIsoDate(date));
+  }
+
+  @Test
+  void parseDateFormatterFallback() {
+    assertEquals(
+        ConversionUtil.FORMATTER_TO_DATE.apply("2026-02-30"),
+        ConversionUtil.parseDate("2026-02-30"));
+    assertEquals(
+        Instant.parse("2026-09-07T08:15:30.123Z"),
+        ConversionUtil.parseDate("2026-09-07T10:15:30.123 +02:00").toInstant());
+  }
+
   @Test
   void parseDateCompactOffsetWithoutSeconds() {
     assertEquals(
@@ -62,4 +120,59 @@ class ConversionUtilTest {
         "First paragraph. Second paragraph.",
         ConversionUtil.sanitizeIcalText("First paragraph.\n\nSecond paragraph.\n"));
   }
+
+  @Test
+  void toVEventFromIndexedDocument() throws Exception {
+    EventDoc event =
+        new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readValue(
+                """
+                {
+                  "id": "e1",
+                  "title": {"en-GB": "Data *workshop*"},
+                  "body": {"en-GB": "Agenda"},
+                  "start": "2026-09-07T09:00:00Z",
+                  "coordinates": {"lat": 55.7, "lon": 12.5},
+                  "primaryLink": {"url": {"en-GB": "https://example.org"}},
+                  "gbifRegion": "EUROPE"
+                }
+                """,
+                EventDoc.class);
+    assertEquals("https://example.org", event.primaryLink().url("en-GB").orElseThrow());
+
+    VEvent vEvent =
+        ConversionUtil.toVEvent(
+            Hit.of(h -> h.index("event").id("e1").source(event)),
+            "en-GB",
+            "https://www.gbif.org/event");
+    assertEquals("e1", vEvent.getUid().getValue());
+    assertEquals("Data workshop", vEvent.getSummary().getValue());
+    assertEquals("55.7;12.5", vEvent.getLocation().getValue());
+    assertEquals(
+        Instant.parse("2026-09-07T09:00:00Z"), vEvent.getDateStart().getValue().toInstant());
+    assertEquals("https://www.gbif.org/event/e1", vEvent.getUrl().getValue());
+  }
+
+  private static Hit<NewsDoc> news(long seqNo, String body) {
+    NewsDoc news = new NewsDoc("n1", null, Map.of("en-GB", body), "2026-09-07", null);
+    return Hit.of(h -> h.index("news").id("n1").seqNo(seqNo).primaryTerm(1L).source(news));
+  }
+
+  /**
+   * Rendered fields are reused while the document revision does not change.
+   */
+  @Test
+  void toFeedEntryRendersEachRevisionOnce() {
+    String link = "https://www.gbif.org/news";
+    assertEquals(
+        "<p><em>first</em></p>\n",
+        ConversionUtil.toFeedEntry(news(1, "*first*"), "en-GB", link).getDescription().getValue());
+    assertEquals(
+        "<p><em>first</em></p>\n",
+        ConversionUtil.toFeedEntry(news(1, "*second*"), "en-GB", link).getDescription().getValue());
+    assertEquals(
+        "<p><em>second</em></p>\n",
+        ConversionUtil.toFeedEntry(news(2, "*second*"), "en-GB", link).getDescription().getValue());
+  }
 }
@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.utils;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ICalTextRendererTest {
+
+  private static final Parser PARSER = Parser.builder().build();
+
+  private static final HtmlRenderer HTML_RENDERER = HtmlRenderer.builder().build();
+
+  /**
+   * Markdown rendered as HTML and formatted as plain text.
+   */
+  private static String htmlPipeline(Document document) {
+    return ConversionUtil.sanitizeIcalText(
+        new HtmlToPlainText().getPlainText(Jsoup.parse(HTML_RENDERER.render(document))));
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "10th International Barcode of life",
+        "\n10th International Barcode of life\n",
+        "First paragraph.\n\nSecond paragraph.\n",
+        "# Agenda\n\n- *Opening* session\n- **Keynote**\n\n1. one\n2. two\n\n- loose\n\n- list",
+        "- item\n  - nested\n- other\n\n> quoted\n> text\n\n---\n\n###### small heading",
+        "Line  \nbreak\\\nand [a link](https://www.gbif.org/event?a=1&b=2) or <https://gbif.org>",
+        "Contact <info@gbif.org>, see [relative](/news) and ![logo](https://gbif.org/l.png) \\*",
+        "Caf&eacute; &amp; bar &#65; 50% \"quoted\" <-> a < b",
+        "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt "
+            + "ut labore et dolore magna aliqua *ut* enim ad minim veniam, quis nostrud "
+            + "exercitation ullamco laboris [nisi](https://example.org) ut aliquip ex ea commodo",
+        "averyveryveryveryveryveryveryveryveryveryveryveryveryveryveryveryveryverylongword and "
+            + "*the emphasis* trailing space of a wrapped text node is lost **here** ok"
+      })
+  void sameTextAsHtmlPipeline(String markdown) {
+    Document document = PARSER.parse(markdown);
+    assertEquals(htmlPipeline(document), ICalTextRenderer.render(document).orElseThrow());
+  }
+
+  @Test
+  void unsupportedNodesAreNotRendered() {
+    assertTrue(ICalTextRenderer.render(PARSER.parse("Some <b>html</b>")).isEmpty());
+    assertTrue(ICalTextRenderer.render(PARSER.parse("Run `code`")).isEmpty());
+    assertTrue(ICalTextRenderer.render(PARSER.parse("[ref]\n\n[ref]: https://gbif.org")).isEmpty());
+  }
+
+  @Test
+  void unsupportedNodesAreRenderedAsHtml() {
+    String markdown = "Some <b>html</b> and `code`\n\n```\nblock\n```";
+    assertEquals(htmlPipeline(PARSER.parse(markdown)), ConversionUtil.toICalText(markdown));
+  }
+}
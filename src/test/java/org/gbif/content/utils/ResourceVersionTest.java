@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.utils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResourceVersionTest {
+
+  private static Hit<Map> hit(String id, long seqNo, String createdAt) {
+    return Hit.of(
+        h -> h
+            .index("news")
+            .id(id)
+            .seqNo(seqNo)
+            .primaryTerm(1L)
+            .source(Map.of("createdAt", createdAt)));
+  }
+
+  @Test
+  void versionChangesWithDocumentSequenceNumber() {
+    ResourceVersion version =
+        ResourceVersion.of(List.of(hit("1", 1, "2026-09-07"), hit("2", 5, "2026-09-08")));
+    assertNotEquals(
+        version.eTag(),
+        ResourceVersion.of(List.of(hit("1", 2, "2026-09-07"), hit("2", 5, "2026-09-08"))).eTag());
+  }
+
+  @Test
+  void onlySingleDocumentsAreLastModified() {
+    assertEquals(
+        Instant.parse("2026-09-08T00:00:00Z"),
+        ResourceVersion.of(hit("2", 5, "2026-09-08")).lastModified());
+    ResourceVersion version =
+        ResourceVersion.of(List.of(hit("1", 1, "2026-09-07"), hit("2", 5, "2026-09-08")));
+    assertNull(version.lastModified());
+    assertNotEquals(
+        version.eTag(), ResourceVersion.of(List.of(hit("2", 5, "2026-09-08"))).eTag());
+  }
+
+  @Test
+  void ifNoneMatchTakesPrecedence() {
+    ResourceVersion version = ResourceVersion.of(hit("1", 1, "2026-09-07"));
+    HttpHeaders headers = new HttpHeaders();
+    headers.setIfModifiedSince(Instant.parse("2026-09-08T00:00:00Z"));
+    assertTrue(version.isNotModified(headers));
+
+    headers.setIfNoneMatch("\"other\"");
+    assertFalse(version.isNotModified(headers));
+
+    headers.setIfNoneMatch(List.of("\"other\"", "W/" + version.eTag()));
+    assertTrue(version.isNotModified(headers));
+  }
+
+  @Test
+  void notModifiedResponseHasNoBody() {
+    ResourceVersion version = ResourceVersion.of(List.of(hit("1", 1, "2026-09-07")));
+    HttpHeaders headers = new HttpHeaders();
+    headers.setIfNoneMatch(version.eTag());
+    var response = version.toResponse(headers, () -> "body");
+    assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+    assertEquals(version.eTag(), response.getHeaders().getETag());
+    assertNull(response.getBody());
+    assertEquals("body", version.toResponse(new HttpHeaders(), () -> "body").getBody());
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.syndication.feed.synd.SyndContentImpl;
+import com.sun.syndication.feed.synd.SyndEntry;
+import com.sun.syndication.feed.synd.SyndEntryImpl;
+import com.sun.syndication.feed.synd.SyndFeed;
+import com.sun.syndication.feed.synd.SyndFeedImpl;
+import com.sun.syndication.io.SyndFeedInput;
+import com.sun.syndication.io.SyndFeedOutput;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RssFeedWriterTest {
+
+  private static SyndFeed channel() {
+    SyndFeed feed = new SyndFeedImpl();
+    feed.setFeedType("rss_2.0");
+    feed.setTitle("GBIF news");
+    feed.setLink("https://www.gbif.org/news");
+    feed.setDescription("News from GBIF");
+    feed.setLanguage("en");
+    return feed;
+  }
+
+  private static SyndEntry entry(String title, String description) {
+    SyndEntry entry = new SyndEntryImpl();
+    entry.setTitle(title);
+    entry.setLink("https://www.gbif.org/news/" + title);
+    entry.setPublishedDate(new Date(1_788_000_000_000L));
+    if (description != null) {
+      SyndContentImpl content = new SyndContentImpl();
+      content.setValue(description);
+      entry.setDescription(content);
+    }
+    return entry;
+  }
+
+  /**
+   * The streamed feed must be read back exactly like the feed produced by ROME.
+   */
+  @Test
+  void sameFeedAsRome() throws Exception {
+    List<SyndEntry> entries =
+        List.of(entry("first", " Body with <b>markup</b> & entities "), entry("second", null));
+
+    SyndFeed romeFeed = channel();
+    romeFeed.setEntries(entries);
+    String rome = new SyndFeedOutput().outputString(romeFeed);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (RssFeedWriter writer = new RssFeedWriter(out, channel())) {
+      for (SyndEntry entry : entries) {
+        writer.write(entry);
+      }
+    }
+    String streamed = out.toString(StandardCharsets.UTF_8);
+
+    assertEquals(read(rome), read(streamed));
+  }
+
+  private static String read(String xml) throws Exception {
+    SyndFeed feed = new SyndFeedInput().build(new StringReader(xml));
+    return feed.toString();
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.content.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+  private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+  private final AtomicInteger calls = new AtomicInteger();
+
+  private CompletableFuture<String> call(CompletableFuture<String> response) {
+    calls.incrementAndGet();
+    return response;
+  }
+
+  @Test
+  void concurrentCallsShareTheCallInFlight() {
+    CompletableFuture<String> response = new CompletableFuture<>();
+    CompletableFuture<String> first = singleFlight.execute("news", () -> call(response));
+    CompletableFuture<String> second = singleFlight.execute("news", () -> call(response));
+    CompletableFuture<String> other =
+        singleFlight.execute("event", () -> call(CompletableFuture.completedFuture("event")));
+
+    assertEquals(2, calls.get());
+    assertEquals("event", other.join());
+    assertFalse(first.isDone());
+
+    // cancelling a caller does not affect the others
+    second.cancel(true);
+    response.complete("news");
+    assertEquals("news", first.join());
+    assertEquals(0, singleFlight.size());
+
+    // completed calls are not reused
+    singleFlight.execute("news", () -> call(CompletableFuture.completedFuture("news")));
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  void failuresAreSharedAndForgotten() {
+    CompletableFuture<String> response = new CompletableFuture<>();
+    CompletableFuture<String> first = singleFlight.execute("news", () -> call(response));
+    CompletableFuture<String> second = singleFlight.execute("news", () -> call(response));
+    response.completeExceptionally(new IllegalStateException("unavailable"));
+
+    assertTrue(
+        assertThrows(CompletionException.class, first::join).getCause()
+            instanceof IllegalStateException);
+    assertThrows(CompletionException.class, second::join);
+    assertEquals(0, singleFlight.size());
+
+    CompletableFuture<String> failed =
+        singleFlight.execute(
+            "news",
+            () -> {
+              throw new IllegalArgumentException("invalid");
+            });
+    assertTrue(failed.isCompletedExceptionally());
+    assertEquals(0, singleFlight.size());
+  }
+}